@@ -7,6 +7,9 @@ import java.util.Map;
  * Class <tt>ExactSearchTrie.java</tt> will store
  * words without any char-conversions (like converting
  * capitals to lower case) and search for them later.
+ * Subclasses may introduce such conversions by overriding
+ * {@link #convert(char)} method, it will be applied to every
+ * character of stored and searched words.
  * <p>
  * The method {@link #contains(String)} is safe for
  * concurrent access if all modifications to a Trie
@@ -33,7 +36,7 @@ public class ExactSearchTrie implements Trie {
     @Override
     public void add(String word) {
         if (word == null || word.length() == 0) return;
-        char ch = word.charAt(0);
+        char ch = convert(word.charAt(0));
         TST tst = topLevel.get(ch);
         if (tst == null) {
             tst = new TST(ch);
@@ -44,7 +47,7 @@ public class ExactSearchTrie implements Trie {
             }
         }
         for (int i = 1; i < word.length(); i++) {
-            ch = word.charAt(i);
+            ch = convert(word.charAt(i));
             tst = tst.insert(ch);
         }
         
@@ -52,6 +55,16 @@ public class ExactSearchTrie implements Trie {
             markNewWord(tst);
     }
 
+    /**
+     * Conversion applied to each character before it is
+     * stored or searched for. There is no conversion here.
+     * @param ch character of a word
+     * @return the same character
+     */
+    protected char convert(char ch) {
+        return ch;
+    }
+
     private void markNewWord(TST tst) {
         size++;
         tst.isWord = true;
@@ -60,12 +73,12 @@ public class ExactSearchTrie implements Trie {
     @Override
     public boolean contains(String word) {
         if (word == null || word.length() == 0) return false;
-        char ch = word.charAt(0);
+        char ch = convert(word.charAt(0));
         TST tst = topLevel.get(ch);
         if (tst == null) 
             return false;
         for (int i = 1; i < word.length(); i++) {
-            ch = word.charAt(i);
+            ch = convert(word.charAt(i));
             if ((tst = tst.getNext(ch)) == null)
                 return false;
         }
@@ -75,14 +88,14 @@ public class ExactSearchTrie implements Trie {
     @Override
     public boolean containsAnyFrom(String word) {
         if (word == null || word.length() == 0) return false;
-        char ch = word.charAt(0);
+        char ch = convert(word.charAt(0));
         TST tst = topLevel.get(ch);
         if (tst == null) 
             return false;
         if (tst.isWord)
             return true;
         for (int i = 1; i < word.length(); i++) {
-            ch = word.charAt(i);
+            ch = convert(word.charAt(i));
             tst = tst.getNext(ch);
             if (tst == null)
                 return false;
@@ -0,0 +1,27 @@
+package dmv.desktop.searchandreplace.collection;
+
+/**
+ * Class <tt>IgnoreCaseSearchTrie.java</tt> is an {@link ExactSearchTrie}
+ * that ignores case of stored and searched words. Each character is 
+ * folded the same way as {@link String#equalsIgnoreCase(String)} 
+ * compares them, so words are not copied in lower case before search.
+ * <p>
+ * Its concurrency policy is the same as for {@link ExactSearchTrie}.
+ * @author dmv
+ * @since 2017 February 06
+ */
+public class IgnoreCaseSearchTrie extends ExactSearchTrie {
+
+    /**
+     * Fold given character to its lower case after upper case
+     * conversion (some letters do not have round-trip conversions)
+     */
+    @Override
+    protected char convert(char ch) {
+        /* ASCII shortcut */
+        if (ch < 128) 
+            return ch >= 'A' && ch <= 'Z' ? (char) (ch + ('a' - 'A')) : ch;
+        return Character.toLowerCase(Character.toUpperCase(ch));
+    }
+
+}
@@ -111,4 +111,19 @@ public interface Exclusions {
      * @return Length of longest suffix
      */
     int maxSuffixSize();
+    
+    /**
+     * Are prefixes and suffixes compared ignoring case of characters
+     * @return true if case of characters is ignored
+     */
+    boolean isIgnoreCase();
+    
+    /**
+     * Get the same prefixes and suffixes compared with given
+     * case rule
+     * @param ignoreCase true - ignore case, false - case sensitive
+     * @return this collection if its rule is the same, 
+     *         otherwise new collection
+     */
+    Exclusions setIgnoreCase(boolean ignoreCase);
 }
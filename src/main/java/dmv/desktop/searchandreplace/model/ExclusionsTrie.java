@@ -3,10 +3,12 @@
  */
 package dmv.desktop.searchandreplace.model;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
 
 import dmv.desktop.searchandreplace.collection.ExactSearchTrie;
+import dmv.desktop.searchandreplace.collection.IgnoreCaseSearchTrie;
 
 /**
  * Immutable Class <tt>ExclusionsTrie.java</tt> will collect
@@ -17,6 +19,11 @@ import dmv.desktop.searchandreplace.collection.ExactSearchTrie;
  * collected them reversed you should be consistent asking for them,
  * i.e. use <em>reverse</em> parameter in <em>contains...</em> methods
  * as needed.
+ * <p>
+ * Case of prefixes and suffixes may be ignored if needed, in that
+ * case they are stored in {@link IgnoreCaseSearchTrie} which 
+ * does not copy searched strings in lower case. The same collection
+ * with another case rule is given by {@link #setIgnoreCase(boolean)}.
  * @author dmv
  * @since 2016 December 27
  */
@@ -24,6 +31,10 @@ public class ExclusionsTrie implements Exclusions {
     
     private final ExactSearchTrie prefixes;
     private final ExactSearchTrie suffixes;
+    private final boolean ignoreCase;
+    /* stored words, so they can be stored again with another case rule */
+    private final List<String> prefixWords;
+    private final List<String> suffixWords;
     
     private String longestPrefix;
     private String longestSuffix;
@@ -51,18 +62,42 @@ public class ExclusionsTrie implements Exclusions {
      *                                  is not a substring
      */
     public ExclusionsTrie(Set<String> exclude, String toFind, boolean reversePrefixes) {
+        this(exclude, toFind, reversePrefixes, false);
+    }
+
+    /**
+     * Construct prefixes and suffixes from the word
+     * to be found and a set of exclusions, the same way as
+     * {@link #ExclusionsTrie(Set, String, boolean)} does,
+     * with an option to ignore case of characters.
+     * @param exclude A set of words to be excluded from search
+     * @param toFind A word that will be subtracted from each exclusion
+     * @param reversePrefixes Set it to true if you need prefixes to be reversed
+     * @param ignoreCase Set it to true if case of characters should be ignored
+     *                   (in exclusions and in <em>toFind</em> search inside them)
+     * @throws IllegalArgumentException If any of arguments is null or empty,
+     *                                  if set contains null pointers
+     *                                  or words for which word 'toFind' 
+     *                                  is not a substring
+     */
+    public ExclusionsTrie(Set<String> exclude, String toFind, 
+                          boolean reversePrefixes, boolean ignoreCase) {
         if (exclude == null || exclude.size() == 0)
             throw new IllegalArgumentException("Set of exclusions must not be empty");
         if (toFind == null || toFind.length() == 0)
             throw new IllegalArgumentException("What to find was not specified");
         longestPrefix = "";
         longestSuffix = "";
-        prefixes = new ExactSearchTrie();
-        suffixes = new ExactSearchTrie();
+        prefixes = createTrie(ignoreCase);
+        suffixes = createTrie(ignoreCase);
+        this.ignoreCase = ignoreCase;
+        prefixWords = new ArrayList<>();
+        suffixWords = new ArrayList<>();
         
         int index = 0;
         for (String word : exclude) {
-            if (word == null || (index = word.indexOf(toFind)) == -1)
+            if (word == null || 
+                (index = MatchUtils.indexOf(word, toFind, 0, ignoreCase)) == -1)
                 throw new IllegalArgumentException(toFind + " is not a substring of " + word);
 
             if (index > 0) 
@@ -89,10 +124,27 @@ public class ExclusionsTrie implements Exclusions {
      * @param reversePrefixes prefixes will be reversed if set to true
      */
     public ExclusionsTrie(List<String> prefixes, List<String> suffixes, boolean reversePrefixes) {
+        this(prefixes, suffixes, reversePrefixes, false);
+    }
+
+    /**
+     * Stores given prefixes and suffixes inside collection
+     * the same way as {@link #ExclusionsTrie(List, List, boolean)} does,
+     * with an option to ignore case of characters.
+     * @param prefixes A list of prefixes or null if prefixes not needed
+     * @param suffixes A list of suffixes or null if suffixes not needed
+     * @param reversePrefixes prefixes will be reversed if set to true
+     * @param ignoreCase case of characters will be ignored if set to true
+     */
+    public ExclusionsTrie(List<String> prefixes, List<String> suffixes, 
+                          boolean reversePrefixes, boolean ignoreCase) {
         longestPrefix = "";
         longestSuffix = "";
-        this.prefixes = new ExactSearchTrie();
-        this.suffixes = new ExactSearchTrie();
+        this.prefixes = createTrie(ignoreCase);
+        this.suffixes = createTrie(ignoreCase);
+        this.ignoreCase = ignoreCase;
+        prefixWords = new ArrayList<>();
+        suffixWords = new ArrayList<>();
         
         if (prefixes != null && prefixes.size() > 0) {
             if (reversePrefixes) 
@@ -154,6 +206,22 @@ public class ExclusionsTrie implements Exclusions {
         return longestSuffix.length();
     }
     
+    @Override
+    public boolean isIgnoreCase() {
+        return ignoreCase;
+    }
+
+    /* prefixes are stored as they are, reversed or not */
+    @Override
+    public Exclusions setIgnoreCase(boolean ignoreCase) {
+        return ignoreCase == this.ignoreCase ? this :
+               new ExclusionsTrie(prefixWords, suffixWords, false, ignoreCase);
+    }
+    
+    private static ExactSearchTrie createTrie(boolean ignoreCase) {
+        return ignoreCase ? new IgnoreCaseSearchTrie() : new ExactSearchTrie();
+    }
+    
     private String reverse(String s) {
         if (s == null || s.length() == 0) return "";
         return new StringBuilder(s).reverse().toString();
@@ -178,6 +246,7 @@ public class ExclusionsTrie implements Exclusions {
         if (s.length() > longestSuffix.length())
             longestSuffix = s;
         suffixes.add(s);
+        suffixWords.add(s);
     }
     
     private void addPrefix(String p) {
@@ -185,6 +254,7 @@ public class ExclusionsTrie implements Exclusions {
         if (p.length() > longestPrefix.length())
             longestPrefix = p;
         prefixes.add(p);
+        prefixWords.add(p);
     }
 
 }
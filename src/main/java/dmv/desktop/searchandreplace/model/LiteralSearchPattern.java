@@ -0,0 +1,134 @@
+/**
+ *
+ */
+package dmv.desktop.searchandreplace.model;
+
+import java.util.Objects;
+
+/**
+ * Immutable class <tt>LiteralSearchPattern.java</tt> implements
+ * {@link SearchPattern} for plain text 'what to find' strings.
+ * Every character is compared exactly as it is given, or, if
+ * case should be ignored, characters are compared the same way
+ * as in {@link String#equalsIgnoreCase(String)} method (without
+ * creation of lower case copies of the content).
+ * @author dmv
+ * @since 2017 February 04
+ */
+public class LiteralSearchPattern implements SearchPattern {
+
+    private final String toFind;
+    private final boolean ignoreCase;
+
+    /**
+     * Create case sensitive pattern for given string
+     * @param toFind 'what to find' string
+     * @throws IllegalArgumentException if argument is null or empty
+     */
+    public LiteralSearchPattern(String toFind) {
+        this(toFind, false);
+    }
+
+    /**
+     * Create pattern for given string
+     * @param toFind 'what to find' string
+     * @param ignoreCase true if case of characters should be ignored
+     * @throws IllegalArgumentException if argument is null or empty
+     */
+    public LiteralSearchPattern(String toFind, boolean ignoreCase) {
+        if (toFind == null || toFind.length() == 0)
+            throw new IllegalArgumentException("What to find was not specified");
+        this.toFind = toFind;
+        this.ignoreCase = ignoreCase;
+    }
+
+    @Override
+    public String getToFind() {
+        return toFind;
+    }
+
+    /**
+     * @return true if case of characters is ignored
+     */
+    public boolean isIgnoreCase() {
+        return ignoreCase;
+    }
+
+    @Override
+    public Finder finder() {
+        return new LiteralFinder(toFind, ignoreCase);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(getClass(), toFind, ignoreCase);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        if (obj == null || getClass() != obj.getClass())
+            return false;
+        LiteralSearchPattern other = (LiteralSearchPattern) obj;
+        return toFind.equals(other.toFind) && 
+               ignoreCase == other.ignoreCase;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("LiteralSearchPattern [toFind=%s, ignoreCase=%s]", 
+                             toFind, ignoreCase);
+    }
+
+    private static class LiteralFinder implements Finder {
+
+        private final String toFind;
+        private final boolean ignoreCase;
+        private CharSequence input;
+        private int from;
+        private int start;
+
+        LiteralFinder(String toFind, boolean ignoreCase) {
+            this.toFind = toFind;
+            this.ignoreCase = ignoreCase;
+            input = "";
+        }
+
+        @Override
+        public Finder reset(CharSequence input) {
+            this.input = input;
+            from = 0;
+            start = -1;
+            return this;
+        }
+
+        @Override
+        public boolean find() {
+            start = MatchUtils.indexOf(input, toFind, from, ignoreCase);
+            if (start < 0) return false;
+            from = start + toFind.length();
+            return true;
+        }
+
+        @Override
+        public boolean find(int from) {
+            this.from = from;
+            return find();
+        }
+
+        @Override
+        public int start() {
+            return start;
+        }
+
+        @Override
+        public int end() {
+            return start + toFind.length();
+        }
+
+        @Override
+        public String replacement(String replaceWith) {
+            return replaceWith;
+        }
+    }
+}
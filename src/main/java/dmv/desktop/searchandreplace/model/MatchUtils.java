@@ -0,0 +1,86 @@
+/**
+ *
+ */
+package dmv.desktop.searchandreplace.model;
+
+/**
+ * Class <tt>MatchUtils.java</tt> contains character comparison
+ * routines shared by {@link SearchPattern} implementations.
+ * None of them creates copies of given text.
+ * @author dmv
+ * @since 2017 February 06
+ */
+final class MatchUtils {
+
+    private MatchUtils() {}
+
+    /**
+     * Compare characters ignoring their case the same way
+     * as {@link String#regionMatches(boolean, int, String, int, int)} does
+     * @param a first character
+     * @param b second character
+     * @return true if characters are equal ignoring case
+     */
+    static boolean equalsIgnoreCase(char a, char b) {
+        if (a == b) return true;
+        char ua = Character.toUpperCase(a);
+        char ub = Character.toUpperCase(b);
+        return ua == ub || 
+               Character.toLowerCase(ua) == Character.toLowerCase(ub);
+    }
+
+    /**
+     * Find index of given word in the input starting from given position
+     * @param input text to search in
+     * @param word what to find
+     * @param from where to start
+     * @param ignoreCase should the case of characters be ignored
+     * @return index of first found word or -1 if there is nothing found
+     */
+    static int indexOf(CharSequence input, String word, int from, boolean ignoreCase) {
+        if (!ignoreCase && input instanceof String)
+            /* Strings have intrinsic search */
+            return ((String) input).indexOf(word, from);
+        if (!ignoreCase && input instanceof SearchableText)
+            return ((SearchableText) input).indexOf(word, from);
+        char first = word.charAt(0);
+        char lower = Character.toLowerCase(first);
+        char upper = Character.toUpperCase(first);
+        int last = input.length() - word.length();
+        for (int i = from < 0 ? 0 : from; i <= last; i++) {
+            char ch = input.charAt(i);
+            if (ch != first && 
+                (!ignoreCase || !isCandidate(ch, first, lower, upper))) continue;
+            if (regionMatches(input, i, word, ignoreCase)) return i;
+        }
+        return -1;
+    }
+
+    /* cheap checks first, full case folding for non-ASCII only */
+    private static boolean isCandidate(char ch, char first, char lower, char upper) {
+        if (ch == lower || ch == upper) return true;
+        if (ch < 128 && first < 128) return false;
+        return equalsIgnoreCase(ch, first);
+    }
+
+    /**
+     * Check if the whole word could be found in the input at given position
+     * @param input text to search in
+     * @param offset position in the input
+     * @param word what to check
+     * @param ignoreCase should the case of characters be ignored
+     * @return true if the input contains given word at given position
+     */
+    static boolean regionMatches(CharSequence input, int offset, String word, boolean ignoreCase) {
+        if (input instanceof String)
+            return ((String) input).regionMatches(ignoreCase, offset, word, 0, word.length());
+        if (offset < 0 || offset + word.length() > input.length())
+            return false;
+        for (int j = 0; j < word.length(); j++) {
+            char a = input.charAt(offset + j), b = word.charAt(j);
+            if (a != b && (!ignoreCase || !equalsIgnoreCase(a, b)))
+                return false;
+        }
+        return true;
+    }
+}
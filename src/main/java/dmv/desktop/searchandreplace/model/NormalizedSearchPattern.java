@@ -0,0 +1,190 @@
+/**
+ *
+ */
+package dmv.desktop.searchandreplace.model;
+
+import java.text.Normalizer;
+import java.text.Normalizer.Form;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Immutable class <tt>NormalizedSearchPattern.java</tt> wraps another
+ * {@link SearchPattern} and lets it find spots in Unicode normalized
+ * (see {@link Normalizer}) form of content, while found spots are 
+ * reported in terms of original content.
+ * <p>
+ * Wrapped pattern is expected to be compiled from 'what to find'
+ * string normalized with the same {@link Form}.
+ * <p>
+ * Content that is already normalized (that's a usual case) is
+ * scanned as it is. Otherwise, it is normalized by segments (each 
+ * segment is a base character with following combining marks),
+ * and only spots that start and end on segment boundaries are found,
+ * so no character will be split by a replacement.
+ * @author dmv
+ * @since 2017 February 06
+ */
+public class NormalizedSearchPattern implements SearchPattern {
+
+    private final SearchPattern pattern;
+    private final Form form;
+
+    /**
+     * Wrap given pattern
+     * @param pattern pattern compiled from normalized 'what to find'
+     * @param form normalization form
+     * @throws NullPointerException if either of arguments is null
+     */
+    public NormalizedSearchPattern(SearchPattern pattern, Form form) {
+        Objects.requireNonNull(pattern);
+        Objects.requireNonNull(form);
+        this.pattern = pattern;
+        this.form = form;
+    }
+
+    @Override
+    public String getToFind() {
+        return pattern.getToFind();
+    }
+
+    /**
+     * @return normalization form
+     */
+    public Form getForm() {
+        return form;
+    }
+
+    @Override
+    public Finder finder() {
+        return new NormalizedFinder(pattern.finder(), form);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(getClass(), pattern, form);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        if (obj == null || getClass() != obj.getClass())
+            return false;
+        NormalizedSearchPattern other = (NormalizedSearchPattern) obj;
+        return pattern.equals(other.pattern) && form == other.form;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("NormalizedSearchPattern [pattern=%s, form=%s]", pattern, form);
+    }
+
+    private static class NormalizedFinder implements Finder {
+
+        private final Finder finder;
+        private final Form form;
+        private final StringBuilder normalized;
+        /* 
+         * index in original content for each normalized character
+         * that starts a segment, -1 for characters inside segments
+         */
+        private int[] origins;
+        private boolean mapped;
+
+        NormalizedFinder(Finder finder, Form form) {
+            this.finder = finder;
+            this.form = form;
+            normalized = new StringBuilder();
+            origins = new int[16];
+        }
+
+        @Override
+        public Finder reset(CharSequence input) {
+            mapped = !Normalizer.isNormalized(input, form);
+            if (mapped) {
+                normalize(input);
+                finder.reset(normalized);
+            } else {
+                finder.reset(input);
+            }
+            return this;
+        }
+
+        @Override
+        public boolean find() {
+            while (finder.find()) {
+                if (onBoundaries()) return true;
+            }
+            return false;
+        }
+
+        @Override
+        public boolean find(int from) {
+            if (!mapped) return finder.find(from);
+            int index = 0;
+            while (index < normalized.length() && origins[index] < from) index++;
+            if (!finder.find(index)) return false;
+            return onBoundaries() || find();
+        }
+
+        @Override
+        public int start() {
+            return mapped ? origins[finder.start()] : finder.start();
+        }
+
+        @Override
+        public int end() {
+            return mapped ? origins[finder.end()] : finder.end();
+        }
+
+        @Override
+        public String replacement(String replaceWith) {
+            return finder.replacement(replaceWith);
+        }
+
+        private boolean onBoundaries() {
+            return !mapped || 
+                   origins[finder.start()] >= 0 && origins[finder.end()] >= 0;
+        }
+
+        private void normalize(CharSequence input) {
+            normalized.setLength(0);
+            int start = 0, length = input.length();
+            while (start < length) {
+                int end = start + Character.charCount(Character.codePointAt(input, start));
+                while (end < length) {
+                    int cp = Character.codePointAt(input, end);
+                    if (!isCombining(cp)) break;
+                    end += Character.charCount(cp);
+                }
+                CharSequence segment = input.subSequence(start, end);
+                if (!Normalizer.isNormalized(segment, form))
+                    segment = Normalizer.normalize(segment, form);
+                mark(normalized.length(), segment.length(), start);
+                normalized.append(segment);
+                start = end;
+            }
+            mark(normalized.length(), 0, length);
+        }
+
+        private void mark(int at, int length, int origin) {
+            if (at + length >= origins.length)
+                origins = Arrays.copyOf(origins, (at + length + 1) * 2);
+            origins[at] = origin;
+            for (int i = 1; i < length; i++)
+                origins[at + i] = -1;
+        }
+
+        private static boolean isCombining(int cp) {
+            switch (Character.getType(cp)) {
+                case Character.NON_SPACING_MARK:
+                case Character.ENCLOSING_MARK:
+                case Character.COMBINING_SPACING_MARK:
+                    return true;
+                default:
+                    /* Hangul medial vowels and final consonants */
+                    return cp >= 0x1160 && cp <= 0x11FF;
+            }
+        }
+    }
+}
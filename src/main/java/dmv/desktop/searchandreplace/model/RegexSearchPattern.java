@@ -0,0 +1,288 @@
+/**
+ *
+ */
+package dmv.desktop.searchandreplace.model;
+
+import java.util.Objects;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Immutable class <tt>RegexSearchPattern.java</tt> implements
+ * {@link SearchPattern} for regular expressions (as described
+ * in {@link Pattern}). Expression is compiled once at construction time.
+ * <p>
+ * Replacement strings may refer to found groups the same way as
+ * {@link Matcher#appendReplacement(StringBuffer, String)} does:
+ * {@code $n} for numbered groups, {@code ${name}} for named ones,
+ * and backslash for escaping of '$' and '\' characters.
+ * <p>
+ * If expression starts with some literal text (i.e. 'prefix'),
+ * then content lines without that prefix won't be scanned by
+ * the regular expression engine at all.
+ * <p>
+ * Case of characters may be ignored (including Unicode letters),
+ * which is the same as {@link Pattern#CASE_INSENSITIVE} and 
+ * {@link Pattern#UNICODE_CASE} flags set.
+ * <p>
+ * If expression is going to be applied to a whole content instead 
+ * of separate lines, it should be compiled in 'multiline' mode
+ * (i.e. with {@link Pattern#MULTILINE} flag), so '^' and '$' 
+ * will still match at the beginning and at the end of each line.
+ * @author dmv
+ * @since 2017 February 04
+ */
+public class RegexSearchPattern implements SearchPattern {
+
+    private static final String META_CHARS = "\\[](){}.*+?^$|";
+    private static final String QUANTIFIERS = "?*{";
+
+    private final String toFind;
+    private final Pattern pattern;
+    private final String prefix;
+    private final boolean ignoreCase;
+    private final boolean multiline;
+
+    /**
+     * Compile given case sensitive regular expression
+     * @param toFind regular expression to be found
+     * @throws IllegalArgumentException if argument is null or empty,
+     *                                  or if it is malformed
+     */
+    public RegexSearchPattern(String toFind) {
+        this(toFind, false);
+    }
+
+    /**
+     * Compile given regular expression
+     * @param toFind regular expression to be found
+     * @param ignoreCase true if case of characters should be ignored
+     * @throws IllegalArgumentException if argument is null or empty,
+     *                                  or if it is malformed
+     */
+    public RegexSearchPattern(String toFind, boolean ignoreCase) {
+        this(toFind, ignoreCase, false);
+    }
+
+    /**
+     * Compile given regular expression
+     * @param toFind regular expression to be found
+     * @param ignoreCase true if case of characters should be ignored
+     * @param multiline true if '^' and '$' should match at line 
+     *                  boundaries of a multi-line content
+     * @throws IllegalArgumentException if argument is null or empty,
+     *                                  or if it is malformed
+     */
+    public RegexSearchPattern(String toFind, boolean ignoreCase, boolean multiline) {
+        if (toFind == null || toFind.length() == 0)
+            throw new IllegalArgumentException("What to find was not specified");
+        this.toFind = toFind;
+        this.ignoreCase = ignoreCase;
+        this.multiline = multiline;
+        int flags = multiline ? Pattern.MULTILINE : 0;
+        if (ignoreCase) flags |= Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE;
+        pattern = Pattern.compile(toFind, flags);
+        prefix = literalPrefix(toFind);
+    }
+
+    @Override
+    public String getToFind() {
+        return toFind;
+    }
+
+    /**
+     * @return true if case of characters is ignored
+     */
+    public boolean isIgnoreCase() {
+        return ignoreCase;
+    }
+
+    /**
+     * @return true if expression is compiled for multi-line content
+     */
+    public boolean isMultiline() {
+        return multiline;
+    }
+
+    @Override
+    public Finder finder() {
+        return new RegexFinder(pattern.matcher(""), prefix, ignoreCase);
+    }
+
+    /**
+     * Literal text any found spot will start with,
+     * may be empty if expression does not start with
+     * a plain text
+     * @return literal prefix of the expression
+     */
+    public String getPrefix() {
+        return prefix;
+    }
+
+    /**
+     * Check if given replacement string refers to existing
+     * groups of this pattern and is correctly formatted
+     * @param replaceWith replacement string
+     * @throws IllegalArgumentException if replacement is malformed
+     *                                  or refers to non-existing groups
+     */
+    public void checkReplacement(String replaceWith) {
+        int groups = pattern.matcher("").groupCount();
+        for (int i = 0; i < replaceWith.length(); i++) {
+            char ch = replaceWith.charAt(i);
+            if (ch == '\\') {
+                if (++i == replaceWith.length())
+                    throw new IllegalArgumentException("character to be escaped is missing");
+            } else if (ch == '$') {
+                if (++i == replaceWith.length())
+                    throw new IllegalArgumentException("Illegal group reference: group index is missing");
+                if (replaceWith.charAt(i) == '{') {
+                    int end = replaceWith.indexOf('}', i);
+                    if (end < 0)
+                        throw new IllegalArgumentException("named capturing group is missing trailing '}'");
+                    String name = replaceWith.substring(i + 1, end);
+                    if (!toFind.contains("(?<" + name + ">"))
+                        throw new IllegalArgumentException("No group with name {" + name + "}");
+                    i = end;
+                } else if (!Character.isDigit(replaceWith.charAt(i)) ||
+                           replaceWith.charAt(i) - '0' > groups) {
+                    throw new IllegalArgumentException("Illegal group reference");
+                }
+            }
+        }
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(getClass(), toFind, ignoreCase, multiline);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        if (obj == null || getClass() != obj.getClass())
+            return false;
+        RegexSearchPattern other = (RegexSearchPattern) obj;
+        return toFind.equals(other.toFind) && 
+               ignoreCase == other.ignoreCase &&
+               multiline == other.multiline;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("RegexSearchPattern [toFind=%s, prefix=%s, ignoreCase=%s, multiline=%s]", 
+                             toFind, prefix, ignoreCase, multiline);
+    }
+
+    /*
+     * Collect plain characters from the beginning of expression
+     * until first special construct. Alternations make any prefix
+     * optional, so there is no prefix at all in that case.
+     */
+    private static String literalPrefix(String regex) {
+        if (regex.indexOf('|') >= 0) return "";
+        StringBuilder prefix = new StringBuilder();
+        int i = regex.charAt(0) == '^' ? 1 : 0;
+        for (; i < regex.length(); i++) {
+            char ch = regex.charAt(i);
+            if (ch == '\\' && i + 1 < regex.length() &&
+                !Character.isLetterOrDigit(regex.charAt(i + 1))) {
+                ch = regex.charAt(++i);
+            } else if (META_CHARS.indexOf(ch) >= 0) {
+                break;
+            }
+            prefix.append(ch);
+        }
+        /* last character is optional if it's followed by a quantifier */
+        if (i < regex.length() && prefix.length() > 0 &&
+            QUANTIFIERS.indexOf(regex.charAt(i)) >= 0)
+            prefix.setLength(prefix.length() - 1);
+        return prefix.toString();
+    }
+
+    private static class RegexFinder implements Finder {
+
+        private final Matcher matcher;
+        private final String prefix;
+        private final boolean ignoreCase;
+        private final StringBuilder replacement;
+        /* index of first prefix occurrence, -1 if there is none */
+        private int from;
+        private boolean started;
+
+        RegexFinder(Matcher matcher, String prefix, boolean ignoreCase) {
+            this.matcher = matcher;
+            this.prefix = prefix;
+            this.ignoreCase = ignoreCase;
+            replacement = new StringBuilder();
+        }
+
+        @Override
+        public Finder reset(CharSequence input) {
+            matcher.reset(input);
+            from = prefix.length() == 0 ? 0 : 
+                   MatchUtils.indexOf(input, prefix, 0, ignoreCase);
+            started = false;
+            return this;
+        }
+
+        @Override
+        public boolean find() {
+            if (started) return matcher.find();
+            started = true;
+            return from >= 0 && matcher.find(from);
+        }
+
+        @Override
+        public boolean find(int from) {
+            started = true;
+            return this.from >= 0 && matcher.find(Math.max(from, this.from));
+        }
+
+        @Override
+        public int start() {
+            return matcher.start();
+        }
+
+        @Override
+        public int end() {
+            return matcher.end();
+        }
+
+        @Override
+        public String replacement(String replaceWith) {
+            if (replaceWith.indexOf('$') < 0 && replaceWith.indexOf('\\') < 0)
+                return replaceWith;
+            replacement.setLength(0);
+            for (int i = 0; i < replaceWith.length(); i++) {
+                char ch = replaceWith.charAt(i);
+                if (ch == '\\') {
+                    replacement.append(replaceWith.charAt(++i));
+                } else if (ch == '$') {
+                    ch = replaceWith.charAt(++i);
+                    String group;
+                    if (ch == '{') {
+                        int end = replaceWith.indexOf('}', i);
+                        group = matcher.group(replaceWith.substring(i + 1, end));
+                        i = end;
+                    } else {
+                        /* take as many digits as there are groups */
+                        int number = ch - '0';
+                        while (i + 1 < replaceWith.length() &&
+                               Character.isDigit(replaceWith.charAt(i + 1))) {
+                            int next = number * 10 + replaceWith.charAt(i + 1) - '0';
+                            if (next > matcher.groupCount()) break;
+                            number = next;
+                            i++;
+                        }
+                        group = matcher.group(number);
+                    }
+                    if (group != null) replacement.append(group);
+                } else {
+                    replacement.append(ch);
+                }
+            }
+            return replacement.toString();
+        }
+    }
+}
@@ -9,8 +9,14 @@ package dmv.desktop.searchandreplace.model;
  * with information of some place in a file or filename
  * that is found by search engine and is about to be replaced.
  * <p>
- * It has {@code lineNumber} - the index of content line;
- * {@code startIndex} - index of first character of found word
+ * It has {@code lineNumber} - 0 for content markers and -1 for
+ * filename markers (content is kept as a single text, so its
+ * markers are not split by lines);
+ * {@code startIndex} - index of first character of found word,
+ * counted from the beginning of the whole content (or filename);
+ * {@code length} - length of found word;
+ * {@code replacement} - what to put instead of found word, if
+ * it differs from profile's 'replace with' string (null otherwise)
  * and {@code excluded} boolean which specifies if this marker
  * will be excluded from 'replace' operation (i.e. ignored).
  * @author dmv
@@ -20,31 +26,49 @@ public class ReplaceMarker {
     
     private int lineNumber;
     private int startIndex;
+    private int length;
+    private String replacement;
     private boolean excluded;
     private int hashCode;
     
     /**
      * Create new Marker
-     * @param lineNumber Number of line in a file content,
+     * @param lineNumber 0 for content marker,
      *                   -1 for filename marker
      * @param startIndex Index of first letter of found word
+     *                   in the whole content (or filename)
      * @param excluded   Is this marker excluded from replacement
      */
     public ReplaceMarker(int lineNumber, int startIndex, boolean excluded) {
+        this(lineNumber, startIndex, 0, excluded);
+    }
+    
+    /**
+     * Create new Marker
+     * @param lineNumber 0 for content marker,
+     *                   -1 for filename marker
+     * @param startIndex Index of first letter of found word
+     *                   in the whole content (or filename)
+     * @param length     Length of found word
+     * @param excluded   Is this marker excluded from replacement
+     */
+    public ReplaceMarker(int lineNumber, int startIndex, int length, boolean excluded) {
         this.lineNumber = lineNumber;
         this.startIndex = startIndex;
+        this.length = length;
         this.excluded = excluded;
     }
 
     /**
-     * @return lineNumber Number of line in a file content,
+     * @return lineNumber 0 for content marker (its start index is
+     *                    an offset in the whole content),
      *                    -1 for filename marker
      */
     public int getLineNumber() {
         return lineNumber;
     }
     /**
-     * @param lineNumber Number of line in a file content,
+     * @param lineNumber 0 for content marker,
      *                   -1 for filename marker
      */
     public void setLineNumber(int lineNumber) {
@@ -53,7 +77,8 @@ public class ReplaceMarker {
     }
     
     /**
-     * @return Index of first letter of found word
+     * @return Index of first letter of found word in the whole 
+     *         content (or filename), not in its line
      */
     public int getStartIndex() {
         return startIndex;
@@ -67,6 +92,36 @@ public class ReplaceMarker {
         hashCode = 0;
     }
     
+    /**
+     * @return Length of found word
+     */
+    public int getLength() {
+        return length;
+    }
+
+    /**
+     * @param length Length of found word
+     */
+    public void setLength(int length) {
+        this.length = length;
+    }
+
+    /**
+     * @return What to put instead of found word or null
+     *         if profile's 'replace with' string should be used
+     */
+    public String getReplacement() {
+        return replacement;
+    }
+
+    /**
+     * @param replacement What to put instead of found word, null
+     *                    if profile's 'replace with' string should be used
+     */
+    public void setReplacement(String replacement) {
+        this.replacement = replacement;
+    }
+    
     /**
      * Is this marker excluded from replacement
      * @return true if it's excluded
@@ -85,8 +140,8 @@ public class ReplaceMarker {
     @Override
     public String toString() {
         return String.format(
-                "ReplaceMarker [lineNumber=%s, startIndex=%s, excluded=%s]",
-                lineNumber, startIndex, excluded);
+                "ReplaceMarker [lineNumber=%s, startIndex=%s, length=%s, excluded=%s]",
+                lineNumber, startIndex, length, excluded);
     }
 
     @Override
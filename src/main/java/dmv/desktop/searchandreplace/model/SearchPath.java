@@ -27,6 +27,15 @@ public interface SearchPath {
      * Subfolders won't be searched by default
      */
     static final boolean defaultSubfolders = false;
+    /**
+     * Default {@link PathMatcher} for excluded folders,
+     * it does not match anything, so no folder is excluded
+     */
+    static final PathMatcher defaultExcludeFolders = path -> false;
+    /**
+     * Ignore files (like '.gitignore') are not taken into account by default
+     */
+    static final boolean defaultGitignore = false;
 
     /**
      * Set the path to be searched. Usually it's a folder
@@ -78,4 +87,53 @@ public interface SearchPath {
      * @return true if subfolders are set to be searched
      */
     boolean isSubfolders();
+    
+    /**
+     * Set glob patterns of folders which should not be searched
+     * at all, like '.git', 'node_modules', 'build/classes'. 
+     * A pattern is matched against folder's name and against
+     * its path relative to the main path. Excluded folders are
+     * not even listed, neither are their subfolders.
+     * <p>
+     * Previously set patterns will be replaced by this set
+     * or removed if new set is empty or null.
+     * @param pattern glob patterns of folders to be skipped
+     * @return new instance of this type
+     * @throws IllegalArgumentException if malformed pattern provided
+     */
+    SearchPath setExcludeFolders(String... pattern);
+    
+    /**
+     * Get a PathMatcher object for folders which should not be searched.
+     * It should be applied to folder's name and to its path
+     * relative to the main path, see {@link #isExcludedFolder(Path)}
+     * @return A PathMatcher for excluded folders or 
+     *         {@link #defaultExcludeFolders} if there are none
+     */
+    PathMatcher getExcludeFolders();
+    
+    /**
+     * Check if given folder (a subfolder of the main path)
+     * should be skipped. The main path itself is never excluded.
+     * @param folder a folder inside the main path
+     * @return true if folder's name or its relative path
+     *         match any of excluded folders patterns
+     */
+    boolean isExcludedFolder(Path folder);
+    
+    /**
+     * Set if '.gitignore' and '.ignore' files found in searched
+     * folders should be honored, so files and folders ignored
+     * by them are skipped (as well as '.git' folders themselves).
+     * Rules of each folder are applied to its subfolders too.
+     * @param gitignore true if ignore files should be honored
+     * @return new instance of this type
+     */
+    SearchPath setGitignore(boolean gitignore);
+    
+    /**
+     * If ignore files are set to be honored
+     * @return true if '.gitignore' and '.ignore' files are honored
+     */
+    boolean isGitignore();
 }
@@ -22,14 +22,20 @@ public class SearchPathImpl implements SearchPath {
     private final Path path;
     private final boolean subfolders;
     private final PathMatcher fileNamePatterns;
+    private final PathMatcher excludeFolders;
+    private final boolean gitignore;
     
     /* to be used with builder */
     private SearchPathImpl(Path path,
                            PathMatcher fileNamePatterns, 
-                           boolean subfolders) {
+                           boolean subfolders,
+                           PathMatcher excludeFolders,
+                           boolean gitignore) {
         this.path = path;
         this.fileNamePatterns = fileNamePatterns;
         this.subfolders = subfolders;
+        this.excludeFolders = excludeFolders;
+        this.gitignore = gitignore;
     }
 
     /**
@@ -73,12 +79,47 @@ public class SearchPathImpl implements SearchPath {
     public boolean isSubfolders() {
         return subfolders;
     }
+
+    /**
+     * @throws IllegalArgumentException if malformed pattern provided
+     */
+    @Override
+    public SearchPath setExcludeFolders(String... pattern) {
+        return new SearchPathBuilder(this)
+                        .setExcludeFolders(pattern)
+                        .build();
+    }
+
+    @Override
+    public PathMatcher getExcludeFolders() {
+        return excludeFolders;
+    }
+
+    @Override
+    public boolean isExcludedFolder(Path folder) {
+        if (folder.equals(path)) return false;
+        Path name = folder.getFileName();
+        return name != null && excludeFolders.matches(name) || 
+               excludeFolders.matches(path.relativize(folder));
+    }
+
+    @Override
+    public SearchPath setGitignore(boolean gitignore) {
+        return new SearchPathBuilder(this)
+                        .setGitignore(gitignore)
+                        .build();
+    }
+
+    @Override
+    public boolean isGitignore() {
+        return gitignore;
+    }
     
     @Override
     public String toString() {
         return String.format(
-                "SearchPath [path=%s, subfolders=%s, fileNamePatterns=%s]",
-                path, subfolders, fileNamePatterns);
+                "SearchPath [path=%s, subfolders=%s, fileNamePatterns=%s, excludeFolders=%s, gitignore=%s]",
+                path, subfolders, fileNamePatterns, excludeFolders, gitignore);
     }
 
     /**
@@ -98,18 +139,24 @@ public class SearchPathImpl implements SearchPath {
         private Path path;
         private boolean subfolders;
         private PathMatcher fileNamePatterns;
+        private PathMatcher excludeFolders;
+        private boolean gitignore;
         
         private SearchPathBuilder(Path path) {
             Objects.requireNonNull(path);
             this.path = path;
             subfolders = defaultSubfolders;
             fileNamePatterns = defaultPattern;
+            excludeFolders = defaultExcludeFolders;
+            gitignore = defaultGitignore;
         }
         
         private SearchPathBuilder(SearchPath searchPath) {
             path = searchPath.getPath();
             subfolders = searchPath.isSubfolders();
             fileNamePatterns = searchPath.getNamePattern();
+            excludeFolders = searchPath.getExcludeFolders();
+            gitignore = searchPath.isGitignore();
         }
         
         /**
@@ -118,7 +165,8 @@ public class SearchPathImpl implements SearchPath {
          * @return new immutable {@link SearchPath} object
          */
         public SearchPath build() {
-            return new SearchPathImpl(path, fileNamePatterns, subfolders);
+            return new SearchPathImpl(path, fileNamePatterns, subfolders, 
+                                      excludeFolders, gitignore);
         }
         
         /**
@@ -174,5 +222,39 @@ public class SearchPathImpl implements SearchPath {
             this.subfolders = subfolders;
             return this;
         }
+        
+        /**
+         * Set glob patterns of folders which should not be searched
+         * at all, like '.git', 'node_modules', 'build/classes'.
+         * <p>
+         * Previously set patterns will be replaced by this set
+         * or removed if new set is empty or null.
+         * @param pattern glob patterns of folders to be skipped
+         * @return this builder
+         * @throws IllegalArgumentException if malformed pattern provided
+         */
+        public SearchPathBuilder setExcludeFolders(String... pattern) {
+            if (pattern != null && pattern.length > 0) {
+                try {
+                    excludeFolders = FileSystems.getDefault()
+                                                .getPathMatcher("glob:{" + 
+                                                        String.join(",", pattern) + "}");
+                } catch (Exception e) {
+                    throw new IllegalArgumentException(e);
+                }
+            } else excludeFolders = defaultExcludeFolders;
+            return this;
+        }
+        
+        /**
+         * Set if '.gitignore' and '.ignore' files found in searched
+         * folders should be honored
+         * @param gitignore true if ignore files should be honored
+         * @return this builder
+         */
+        public SearchPathBuilder setGitignore(boolean gitignore) {
+            this.gitignore = gitignore;
+            return this;
+        }
     }
 }
@@ -0,0 +1,92 @@
+/**
+ *
+ */
+package dmv.desktop.searchandreplace.model;
+
+/**
+ * Interface <tt>SearchPattern.java</tt> describes a compiled form
+ * of 'what to find' expression. It is created once per
+ * {@link SearchProfile} and is safe to be shared between threads,
+ * while actual scanning is done by a {@link Finder} object, which
+ * is not thread safe and should be obtained for each worker separately.
+ * <p>
+ * Two patterns are equal if they are going to find the same spots
+ * in the same content. Replacement string is not a part of a pattern,
+ * it is given to {@link Finder#replacement(String)} method instead.
+ * @author dmv
+ * @since 2017 February 04
+ */
+public interface SearchPattern {
+
+    /**
+     * Get original 'what to find' expression this pattern
+     * was compiled from
+     * @return 'what to find' expression
+     */
+    String getToFind();
+
+    /**
+     * Create new {@link Finder} object for this pattern.
+     * Finder must be {@link Finder#reset(CharSequence) reset}
+     * with some input before use.
+     * @return new Finder object
+     */
+    Finder finder();
+
+    /**
+     * Interface <tt>Finder</tt> describes a stateful scanner
+     * of one input at a time, similar to {@link java.util.regex.Matcher}.
+     * It can be reused for many inputs via {@link #reset(CharSequence)}
+     * method. It is not thread safe.
+     */
+    interface Finder {
+
+        /**
+         * Set new input (i.e. content line) and start
+         * scanning from its beginning on next {@link #find()} call.
+         * @param input content to scan
+         * @return this finder
+         */
+        Finder reset(CharSequence input);
+
+        /**
+         * Look for the next spot in current input. Spots found
+         * consequently do not overlap.
+         * @return true if next spot is found
+         */
+        boolean find();
+
+        /**
+         * Look for the next spot in current input starting 
+         * from given index, as if previous spots were not found.
+         * Next {@link #find()} call will continue from found spot.
+         * @param from index in current input to start from
+         * @return true if next spot is found
+         */
+        boolean find(int from);
+
+        /**
+         * Index of first character of last found spot
+         * @return start index
+         */
+        int start();
+
+        /**
+         * Index after last character of last found spot
+         * @return end index (exclusive)
+         */
+        int end();
+
+        /**
+         * Create replacement for last found spot. For plain
+         * text patterns it is given string itself, other
+         * implementations may expand references to found
+         * spot's parts (like regular expression groups).
+         * @param replaceWith 'replace with' string from a profile
+         * @return actual replacement for last found spot
+         * @throws IllegalArgumentException if given string
+         *                                  refers to non-existing parts
+         */
+        String replacement(String replaceWith);
+    }
+}
@@ -7,6 +7,8 @@ import static java.util.Collections.emptyList;
 
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.text.Normalizer;
+import java.util.function.IntPredicate;
 
 /**
  * Interface <tt>SearchProfile.java</tt> describes methods
@@ -32,6 +34,26 @@ public interface SearchProfile {
      * Default renaming rule is false (do not rename files)
      */
     static final boolean defaultRenameRule = false;
+    /**
+     * Default content rule is true (search and replace files content)
+     */
+    static final boolean defaultContentRule = true;
+    /**
+     * Default folder renaming rule is false (do not rename folders)
+     */
+    static final boolean defaultFolderRenameRule = false;
+    /**
+     * 'What to find' is a plain text by default, not a regular expression
+     */
+    static final boolean defaultRegexRule = false;
+    /**
+     * Case of characters is not ignored by default
+     */
+    static final boolean defaultIgnoreCaseRule = false;
+    /**
+     * Content is searched line by line by default
+     */
+    static final boolean defaultMultilineRule = false;
     /**
      * Empty set of {@link Exclusions} set by default;
      */
@@ -80,6 +102,43 @@ public interface SearchProfile {
      */
     SearchProfile setFilename(boolean filename);
     
+    /**
+     * Will files content be searched and replaced or not.
+     * This parameter is true by default.
+     * @return true if files content needs to be replaced
+     */
+    boolean isContent();
+    
+    /**
+     * Set it to false if only file names should be searched
+     * and replaced (along with {@link #setFilename(boolean)} 
+     * set to true), so files are renamed without being read 
+     * or even opened.
+     * @param content true - replace content, false - skip content
+     * @return new instance of this type
+     */
+    SearchProfile setContent(boolean content);
+    
+    /**
+     * Will names of subfolders be searched and replaced or not.
+     * This parameter is false by default.
+     * @return true if subfolders need to be renamed
+     */
+    boolean isFolderName();
+    
+    /**
+     * Set it to true if you need to rename subfolders (not the
+     * folder where search starts) with the same 'search and replace'
+     * rule as files. Folders are renamed only if file names are 
+     * (see {@link #setFilename(boolean)}), after all files in them
+     * were processed, the deepest ones first. If subfolders are not
+     * searched (see {@link SearchPath#setSubfolders(boolean)}),
+     * folders right inside the root one may still be renamed.
+     * @param folderName true - rename folders, false - skip folder names
+     * @return new instance of this type
+     */
+    SearchProfile setFolderName(boolean folderName);
+    
     /**
      * Get current string that is needed to be found and replaced.
      * @return Current 'what to find' string. It can't be null or empty
@@ -93,10 +152,113 @@ public interface SearchProfile {
      * It should contain at least one character.
      * @param toFind String to be found
      * @return new instance of this type
-     * @throws IllegalArgumentException if given argument is null or empty
+     * @throws IllegalArgumentException if given argument is null or empty,
+     *                                  or it is malformed regular expression
+     *                                  (in case if {@link #isRegex()} is true)
      */
     SearchProfile setToFind(String toFind);
 
+    /**
+     * Is 'what to find' string a regular expression
+     * or a plain text. This parameter is false by default.
+     * @return true if 'what to find' is a regular expression
+     */
+    boolean isRegex();
+
+    /**
+     * Set it to true if 'what to find' string is a regular 
+     * expression (as described in {@link java.util.regex.Pattern}).
+     * In this case 'replace with' string may refer to found groups 
+     * like {@code $1} or {@code ${name}}, and literal '$' or '\'
+     * characters should be escaped with backslash.
+     * @param regex true - regular expression, false - plain text
+     * @return new instance of this type
+     * @throws IllegalArgumentException if 'what to find' is not a valid
+     *                                  regular expression or 'replace with'
+     *                                  refers to non-existing groups
+     */
+    SearchProfile setRegex(boolean regex);
+
+    /**
+     * Is content searched as a whole (so 'what to find' may 
+     * span several lines) or line by line. This parameter 
+     * is false by default.
+     * @return true if content is searched as a whole
+     */
+    boolean isMultiline();
+
+    /**
+     * Set it to true if 'what to find' string may contain
+     * line separators, i.e. content should be searched as a whole
+     * and not line by line. Regular expressions are compiled with
+     * {@link java.util.regex.Pattern#MULTILINE} flag in that mode.
+     * @param multiline true - search whole content, false - line by line
+     * @return new instance of this type
+     */
+    SearchProfile setMultiline(boolean multiline);
+
+    /**
+     * Is case of characters ignored while searching 'what to find'
+     * string (and exclusions). This parameter is false by default.
+     * @return true if case of characters is ignored
+     */
+    boolean isIgnoreCase();
+
+    /**
+     * Set it to true if case of characters should be ignored
+     * while searching for 'what to find' string. Letters are compared
+     * the same way as {@link String#equalsIgnoreCase(String)} does.
+     * {@link Exclusions} follow the same rule, see
+     * {@link Exclusions#setIgnoreCase(boolean)}.
+     * @param ignoreCase true - ignore case, false - case sensitive search
+     * @return new instance of this type
+     */
+    SearchProfile setIgnoreCase(boolean ignoreCase);
+
+    /**
+     * Get Unicode normalization form (see {@link java.text.Normalizer})
+     * which is applied to 'what to find' and to content before they are
+     * compared, or null if content is compared as it is (default).
+     * @return current normalization form or null
+     */
+    Normalizer.Form getNormalization();
+
+    /**
+     * Set Unicode normalization form (like {@link Normalizer.Form#NFC NFC}
+     * or {@link Normalizer.Form#NFD NFD}), so differently composed 
+     * characters will be found as equal ones. Found spots are still
+     * replaced in original content. Null means no normalization.
+     * @param form normalization form or null
+     * @return new instance of this type
+     */
+    SearchProfile setNormalization(Normalizer.Form form);
+
+    /**
+     * Get class of characters words are made of, if only whole words 
+     * should be found, or null if any substring is found (default).
+     * @return current class of characters or null
+     */
+    IntPredicate getWordBoundary();
+
+    /**
+     * Set class of characters words are made of, so 'what to find'
+     * string will not be found inside bigger words or identifiers.
+     * Null means that any substring is found. It may be one of
+     * {@link WordBoundary} presets or any predicate which is true
+     * for code points words are made of.
+     * @param boundary class of characters or null
+     * @return new instance of this type
+     */
+    SearchProfile setWordBoundary(IntPredicate boundary);
+
+    /**
+     * Get compiled form of 'what to find' string according to
+     * current settings. It is created once per profile and may 
+     * be shared between threads.
+     * @return compiled 'what to find' pattern
+     */
+    SearchPattern getSearchPattern();
+    
     /**
      * Get current string that will be placed instead
      * of 'what to find' one, can be empty string.
@@ -115,6 +277,9 @@ public interface SearchProfile {
      * for filenames, it won't be enforced or checked though.
      * @param replaceWith String to be replaced with
      * @return new instance of this type
+     * @throws IllegalArgumentException if 'what to find' is a regular 
+     *                                  expression and given string refers 
+     *                                  to non-existing groups
      */
     SearchProfile setReplaceWith(String replaceWith);
     
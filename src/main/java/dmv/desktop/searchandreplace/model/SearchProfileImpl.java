@@ -4,6 +4,8 @@
 package dmv.desktop.searchandreplace.model;
 
 import java.nio.charset.Charset;
+import java.text.Normalizer;
+import java.util.function.IntPredicate;
 
 /**
  * Class <tt>SearchProfileImpl.java</tt> implements 
@@ -22,19 +24,34 @@ public class SearchProfileImpl implements SearchProfile {
     
     private final Charset charset;
     private final boolean filename;
+    private final boolean content;
+    private final boolean folderName;
     private final String toFind;
     private final String replaceWith;
     private final Exclusions exclusions;
+    private final boolean regex;
+    private final boolean multiline;
+    private final boolean ignoreCase;
+    private final Normalizer.Form normalization;
+    private final IntPredicate wordBoundary;
+    private final SearchPattern pattern;
     
     /* to be used with builder */
-    private SearchProfileImpl(Charset charset, boolean filename, 
-                              String toFind, String replaceWith, 
-                              Exclusions exclusions) {
-        this.charset = charset;
-        this.filename = filename;
-        this.toFind = toFind;
-        this.replaceWith = replaceWith;
-        this.exclusions = exclusions;
+    private SearchProfileImpl(SearchProfileBuilder builder, SearchPattern pattern) {
+        charset = builder.charset;
+        filename = builder.filename;
+        content = builder.content;
+        folderName = builder.folderName;
+        toFind = builder.toFind;
+        replaceWith = builder.replaceWith;
+        /* exclusions are compared with the same case rule as 'what to find' */
+        exclusions = builder.exclusions.setIgnoreCase(builder.ignoreCase);
+        regex = builder.regex;
+        multiline = builder.multiline;
+        ignoreCase = builder.ignoreCase;
+        normalization = builder.normalization;
+        wordBoundary = builder.wordBoundary;
+        this.pattern = pattern;
     }
 
     @Override
@@ -47,11 +64,51 @@ public class SearchProfileImpl implements SearchProfile {
         return filename;
     }
 
+    @Override
+    public boolean isContent() {
+        return content;
+    }
+
+    @Override
+    public boolean isFolderName() {
+        return folderName;
+    }
+
     @Override
     public String getToFind() {
         return toFind;
     }
 
+    @Override
+    public boolean isRegex() {
+        return regex;
+    }
+
+    @Override
+    public boolean isMultiline() {
+        return multiline;
+    }
+
+    @Override
+    public boolean isIgnoreCase() {
+        return ignoreCase;
+    }
+
+    @Override
+    public Normalizer.Form getNormalization() {
+        return normalization;
+    }
+
+    @Override
+    public IntPredicate getWordBoundary() {
+        return wordBoundary;
+    }
+
+    @Override
+    public SearchPattern getSearchPattern() {
+        return pattern;
+    }
+
     @Override
     public String getReplaceWith() {
         return replaceWith;
@@ -76,6 +133,20 @@ public class SearchProfileImpl implements SearchProfile {
                         .build();
     }
 
+    @Override
+    public SearchProfile setContent(boolean content) {
+        return new SearchProfileBuilder(this)
+                        .setContent(content)
+                        .build();
+    }
+
+    @Override
+    public SearchProfile setFolderName(boolean folderName) {
+        return new SearchProfileBuilder(this)
+                        .setFolderName(folderName)
+                        .build();
+    }
+
     /**
      * @throws IllegalArgumentException if given string is null or empty
      */
@@ -86,6 +157,46 @@ public class SearchProfileImpl implements SearchProfile {
                         .build();
     }
 
+    /**
+     * @throws IllegalArgumentException if 'what to find' is not a valid
+     *                                  regular expression or 'replace with'
+     *                                  refers to non-existing groups
+     */
+    @Override
+    public SearchProfile setRegex(boolean regex) {
+        return new SearchProfileBuilder(this)
+                        .setRegex(regex)
+                        .build();
+    }
+
+    @Override
+    public SearchProfile setMultiline(boolean multiline) {
+        return new SearchProfileBuilder(this)
+                        .setMultiline(multiline)
+                        .build();
+    }
+
+    @Override
+    public SearchProfile setIgnoreCase(boolean ignoreCase) {
+        return new SearchProfileBuilder(this)
+                        .setIgnoreCase(ignoreCase)
+                        .build();
+    }
+
+    @Override
+    public SearchProfile setNormalization(Normalizer.Form form) {
+        return new SearchProfileBuilder(this)
+                        .setNormalization(form)
+                        .build();
+    }
+
+    @Override
+    public SearchProfile setWordBoundary(IntPredicate boundary) {
+        return new SearchProfileBuilder(this)
+                        .setWordBoundary(boundary)
+                        .build();
+    }
+
     @Override
     public SearchProfile setReplaceWith(String replaceWith) {
         return new SearchProfileBuilder(this)
@@ -103,8 +214,11 @@ public class SearchProfileImpl implements SearchProfile {
     @Override
     public String toString() {
         return String.format(
-                "SearchProfile [charset=%s, filename=%s, toFind=%s, replaceWith=%s, exclusions=%s]",
-                charset, filename, toFind, replaceWith, exclusions);
+                "SearchProfile [charset=%s, filename=%s, content=%s, folderName=%s, toFind=%s, regex=%s, "
+                + "multiline=%s, ignoreCase=%s, normalization=%s, wordBoundary=%s, replaceWith=%s, "
+                + "exclusions=%s]",
+                charset, filename, content, folderName, toFind, regex, multiline, ignoreCase, 
+                normalization, wordBoundary, replaceWith, exclusions);
     }
 
     /**
@@ -125,34 +239,56 @@ public class SearchProfileImpl implements SearchProfile {
         
         private Charset charset;
         private boolean filename;
+        private boolean content;
+        private boolean folderName;
         private String toFind;
         private String replaceWith;
         private Exclusions exclusions;
+        private boolean regex;
+        private boolean multiline;
+        private boolean ignoreCase;
+        private Normalizer.Form normalization;
+        private IntPredicate wordBoundary;
         
         private SearchProfileBuilder(String toFind) {
             checkToFind(toFind);
             this.toFind = toFind;
             charset = defaultCharset;
             filename = defaultRenameRule;
+            content = defaultContentRule;
+            folderName = defaultFolderRenameRule;
             replaceWith = EMPTY_REPLACE;
             exclusions = EMPTY_EXCLUSIONS;
+            regex = defaultRegexRule;
+            multiline = defaultMultilineRule;
+            ignoreCase = defaultIgnoreCaseRule;
         }
         
         private SearchProfileBuilder(SearchProfile profile) {
             charset = profile.getCharset();
             filename = profile.isFileName();
+            content = profile.isContent();
+            folderName = profile.isFolderName();
             toFind = profile.getToFind();
             replaceWith = profile.getReplaceWith();
             exclusions = profile.getExclusions();
+            regex = profile.isRegex();
+            multiline = profile.isMultiline();
+            ignoreCase = profile.isIgnoreCase();
+            normalization = profile.getNormalization();
+            wordBoundary = profile.getWordBoundary();
         }
 
         /**
          * Create new instance of {@link SearchProfile}
          * which is immutable
          * @return immutable {@link SearchProfile} object
+         * @throws IllegalArgumentException if 'what to find' is not a valid
+         *                                  regular expression or 'replace with'
+         *                                  refers to non-existing groups
          */
         public SearchProfile build() {
-            return new SearchProfileImpl(charset, filename, toFind, replaceWith, exclusions);
+            return new SearchProfileImpl(this, compile());
         }
 
         /**
@@ -182,6 +318,32 @@ public class SearchProfileImpl implements SearchProfile {
             return this;
         }
         
+        /**
+         * Set it to false if only file names should be searched
+         * and replaced (along with {@link #setFilename(boolean)} 
+         * set to true), so files are renamed without being read 
+         * or even opened.
+         * @param content true - replace content, false - skip content
+         * @return this builder
+         */
+        public SearchProfileBuilder setContent(boolean content) {
+            this.content = content;
+            return this;
+        }
+        
+        /**
+         * Set it to true if you need to rename subfolders (not the
+         * folder where search starts) with the same 'search and replace'
+         * rule as files. Folders are renamed after all files in them
+         * were processed, the deepest ones first.
+         * @param folderName true - rename folders, false - skip folder names
+         * @return this builder
+         */
+        public SearchProfileBuilder setFolderName(boolean folderName) {
+            this.folderName = folderName;
+            return this;
+        }
+        
         /**
          * Set string to be found and replaced.
          * It is not appropriate to have a null pointer
@@ -226,6 +388,86 @@ public class SearchProfileImpl implements SearchProfile {
             return this;
         }
 
+        /**
+         * Set it to true if 'what to find' string is a regular 
+         * expression (as described in {@link java.util.regex.Pattern}).
+         * In this case 'replace with' string may refer to found groups 
+         * like {@code $1} or {@code ${name}}. The expression will
+         * be validated at {@link #build()} time.
+         * @param regex true - regular expression, false - plain text
+         * @return this builder
+         */
+        public SearchProfileBuilder setRegex(boolean regex) {
+            this.regex = regex;
+            return this;
+        }
+
+        /**
+         * Set it to true if content should be searched as a whole
+         * and not line by line, so 'what to find' may contain
+         * line separators.
+         * @param multiline true - search whole content, false - line by line
+         * @return this builder
+         */
+        public SearchProfileBuilder setMultiline(boolean multiline) {
+            this.multiline = multiline;
+            return this;
+        }
+
+        /**
+         * Set it to true if case of characters should be ignored
+         * while searching for 'what to find' string.
+         * @param ignoreCase true - ignore case, false - case sensitive search
+         * @return this builder
+         */
+        public SearchProfileBuilder setIgnoreCase(boolean ignoreCase) {
+            this.ignoreCase = ignoreCase;
+            return this;
+        }
+
+        /**
+         * Set Unicode normalization form which is applied to
+         * 'what to find' and to content before they are compared.
+         * Null means no normalization (default).
+         * @param form normalization form or null
+         * @return this builder
+         */
+        public SearchProfileBuilder setNormalization(Normalizer.Form form) {
+            this.normalization = form;
+            return this;
+        }
+
+        /**
+         * Set class of characters words are made of, if only
+         * whole words should be found. Null means that any 
+         * substring is found (default). It may be one of
+         * {@link WordBoundary} presets or any predicate which is true
+         * for code points words are made of.
+         * @param boundary class of characters or null
+         * @return this builder
+         */
+        public SearchProfileBuilder setWordBoundary(IntPredicate boundary) {
+            this.wordBoundary = boundary;
+            return this;
+        }
+
+        private SearchPattern compile() {
+            String find = normalization == null ? toFind : 
+                          Normalizer.normalize(toFind, normalization);
+            SearchPattern pattern;
+            if (regex) {
+                RegexSearchPattern regexPattern = new RegexSearchPattern(find, ignoreCase, multiline);
+                regexPattern.checkReplacement(replaceWith);
+                pattern = regexPattern;
+            } else {
+                pattern = new LiteralSearchPattern(find, ignoreCase);
+            }
+            if (normalization != null)
+                pattern = new NormalizedSearchPattern(pattern, normalization);
+            return wordBoundary == null ? pattern : 
+                   new WholeWordSearchPattern(pattern, wordBoundary);
+        }
+
         private void checkToFind(String toFind) {
             if (toFind == null || toFind.length() < 1)
                 throw new IllegalArgumentException(
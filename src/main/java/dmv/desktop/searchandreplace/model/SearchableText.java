@@ -0,0 +1,27 @@
+/**
+ *
+ */
+package dmv.desktop.searchandreplace.model;
+
+/**
+ * Interface <tt>SearchableText.java</tt> describes a character
+ * sequence which can find a word in itself faster than character
+ * by character, usually because it is a part of a bigger
+ * {@link String} and may use String's own search.
+ * {@link SearchPattern} finders use it for case sensitive
+ * literal search.
+ * @author dmv
+ * @since 2017 February 24
+ */
+public interface SearchableText extends CharSequence {
+
+    /**
+     * Find index of given word (case sensitive) in this sequence
+     * starting from given position
+     * @param word what to find
+     * @param from where to start
+     * @return index of first found word within this sequence
+     *         or -1 if there is nothing found
+     */
+    int indexOf(String word, int from);
+}
@@ -0,0 +1,155 @@
+/**
+ *
+ */
+package dmv.desktop.searchandreplace.model;
+
+import java.util.Objects;
+import java.util.function.IntPredicate;
+
+/**
+ * Immutable class <tt>WholeWordSearchPattern.java</tt> wraps another
+ * {@link SearchPattern} and accepts only those found spots that
+ * are whole words according to given class of characters words
+ * are made of: one of {@link WordBoundary} presets or any predicate
+ * of code points.
+ * <p>
+ * Each side of a spot is checked separately: it is on a word
+ * boundary if either the neighbor character outside the spot or
+ * the edge character of the spot itself is not a part of a word.
+ * So 'name' is not found inside 'rename', while '(name' is found
+ * inside 'x(name)'.
+ * <p>
+ * Boundaries are checked right inside the {@link Finder}, when
+ * a spot is rejected the search continues from the next character.
+ * @author dmv
+ * @since 2017 February 07
+ */
+public class WholeWordSearchPattern implements SearchPattern {
+
+    private final SearchPattern pattern;
+    private final IntPredicate boundary;
+
+    /**
+     * Wrap given pattern
+     * @param pattern pattern to find spots with
+     * @param boundary class of characters words are made of,
+     *                true for code points which are parts of words
+     * @throws NullPointerException if either of arguments is null
+     */
+    public WholeWordSearchPattern(SearchPattern pattern, IntPredicate boundary) {
+        Objects.requireNonNull(pattern);
+        Objects.requireNonNull(boundary);
+        this.pattern = pattern;
+        this.boundary = boundary;
+    }
+
+    @Override
+    public String getToFind() {
+        return pattern.getToFind();
+    }
+
+    /**
+     * @return pattern spots are found with
+     */
+    public SearchPattern getPattern() {
+        return pattern;
+    }
+
+    /**
+     * @return class of characters words are made of
+     */
+    public IntPredicate getBoundary() {
+        return boundary;
+    }
+
+    @Override
+    public Finder finder() {
+        return new WholeWordFinder(pattern.finder(), boundary);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(getClass(), pattern, boundary);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        if (obj == null || getClass() != obj.getClass())
+            return false;
+        WholeWordSearchPattern other = (WholeWordSearchPattern) obj;
+        return pattern.equals(other.pattern) && boundary.equals(other.boundary);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("WholeWordSearchPattern [pattern=%s, boundary=%s]",
+                             pattern, boundary);
+    }
+
+    private static class WholeWordFinder implements Finder {
+
+        private final Finder finder;
+        private final IntPredicate boundary;
+        private CharSequence input;
+
+        WholeWordFinder(Finder finder, IntPredicate boundary) {
+            this.finder = finder;
+            this.boundary = boundary;
+            input = "";
+        }
+
+        @Override
+        public Finder reset(CharSequence input) {
+            this.input = input;
+            finder.reset(input);
+            return this;
+        }
+
+        @Override
+        public boolean find() {
+            return accept(finder.find());
+        }
+
+        @Override
+        public boolean find(int from) {
+            return accept(finder.find(from));
+        }
+
+        @Override
+        public int start() {
+            return finder.start();
+        }
+
+        @Override
+        public int end() {
+            return finder.end();
+        }
+
+        @Override
+        public String replacement(String replaceWith) {
+            return finder.replacement(replaceWith);
+        }
+
+        /*
+         * rejected spot may overlap with a whole word,
+         * so search is repeated from the next character
+         */
+        private boolean accept(boolean found) {
+            while (found && !isWholeWord(finder.start(), finder.end()))
+                found = finder.start() < input.length() &&
+                        finder.find(finder.start() + 1);
+            return found;
+        }
+
+        private boolean isWholeWord(int start, int end) {
+            if (start > 0 && start < input.length() &&
+                boundary.test(Character.codePointBefore(input, start)) &&
+                boundary.test(Character.codePointAt(input, start)))
+                return false;
+            return end == 0 || end == input.length() ||
+                   !boundary.test(Character.codePointBefore(input, end)) ||
+                   !boundary.test(Character.codePointAt(input, end));
+        }
+    }
+}
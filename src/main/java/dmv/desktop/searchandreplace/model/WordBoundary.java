@@ -0,0 +1,67 @@
+/**
+ *
+ */
+package dmv.desktop.searchandreplace.model;
+
+import java.util.function.IntPredicate;
+
+/**
+ * Enum <tt>WordBoundary.java</tt> lists classes of characters
+ * words are made of. In 'whole word' search mode a found spot
+ * is accepted only if it is not surrounded by characters of
+ * chosen class, so 'what to find' string is not replaced
+ * inside bigger words or identifiers.
+ * <p>
+ * These are presets only: any {@link IntPredicate} of code points
+ * may be given as a class of characters, see
+ * {@link WholeWordSearchPattern#WholeWordSearchPattern(SearchPattern, IntPredicate)}.
+ * @author dmv
+ * @since 2017 February 07
+ */
+public enum WordBoundary implements IntPredicate {
+
+    /**
+     * Letters, digits and underscore (the same as {@code \w}
+     * in Unicode aware regular expressions)
+     */
+    WORD {
+        @Override
+        public boolean isWordPart(int codePoint) {
+            return codePoint == '_' || Character.isLetterOrDigit(codePoint);
+        }
+    },
+    /**
+     * Letters and digits only, so underscore and other
+     * punctuation separate words
+     */
+    ALPHANUMERIC {
+        @Override
+        public boolean isWordPart(int codePoint) {
+            return Character.isLetterOrDigit(codePoint);
+        }
+    },
+    /**
+     * Any character which may be a part of Java identifier
+     * (see {@link Character#isJavaIdentifierPart(int)}),
+     * including '$' and '_' signs
+     */
+    JAVA_IDENTIFIER {
+        @Override
+        public boolean isWordPart(int codePoint) {
+            return Character.isJavaIdentifierPart(codePoint) &&
+                   !Character.isIdentifierIgnorable(codePoint);
+        }
+    };
+
+    /**
+     * Check if given character belongs to this class
+     * @param codePoint Unicode code point
+     * @return true if character may be a part of a word
+     */
+    public abstract boolean isWordPart(int codePoint);
+
+    @Override
+    public boolean test(int codePoint) {
+        return isWordPart(codePoint);
+    }
+}
@@ -0,0 +1,222 @@
+/**
+ *
+ */
+package dmv.desktop.searchandreplace.service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.CompletionHandler;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+import dmv.desktop.searchandreplace.collection.Tuple;
+
+/**
+ * Class <tt>AsyncReader.java</tt> reads files with {@link AsynchronousFileChannel}
+ * and hands their bytes to a processing stage run by given executor,
+ * so executor threads are not blocked while reads are in flight and
+ * a few threads may keep many reads going on high-latency storage.
+ * <p>
+ * Files (or batches of files) are read in the order they are given,
+ * no more than a limit of them at once. A place is taken when reading
+ * starts and is freed when the processing stage is over, so bytes
+ * waiting for processing are limited too. Files which are not smaller
+ * than a size limit, or which fail to be read, are given to the stage
+ * without bytes (as nulls), they are expected to be read the usual
+ * way, and so failures are reported the usual way.
+ * <p>
+ * Reads are started either by the thread giving files or by the
+ * thread finishing previous processing, they wait for given
+ * {@link IoThrottle} there. Object is thread safe.
+ * @author dmv
+ * @since 2017 February 20
+ */
+final class AsyncReader {
+
+    /* The same limit as in Files.readAllBytes */
+    private static final int MAX_ARRAY_SIZE = Integer.MAX_VALUE - 8;
+
+    private final int maxInFlight;
+    private final long sizeLimit;
+    private final IoThrottle throttle;
+    /* files waiting for a place */
+    private final Queue<Runnable> waiting;
+    private int inFlight;
+
+    /**
+     * Create reader with given limits
+     * @param maxInFlight number of files (or batches) being read
+     *                    or processed at once
+     * @param sizeLimit files of that size or bigger are not read
+     * @param throttle limiter of I/O rate or null
+     * @throws IllegalArgumentException if maxInFlight is not positive
+     */
+    AsyncReader(int maxInFlight, long sizeLimit, IoThrottle throttle) {
+        if (maxInFlight <= 0)
+            throw new IllegalArgumentException("There must be at least one read in flight");
+        this.maxInFlight = maxInFlight;
+        this.sizeLimit = Math.min(sizeLimit, MAX_ARRAY_SIZE);
+        this.throttle = throttle;
+        waiting = new ArrayDeque<>();
+    }
+
+    /**
+     * @return number of files (or batches) being read or processed
+     */
+    synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    /**
+     * Read given files as soon as the limit allows it and then
+     * process them with given executor
+     * @param files files along with their attributes
+     * @param stage processing of files' bytes, listed in the same
+     *              order as files are, with nulls for files not read
+     * @param exec executor to run processing with
+     * @return future of processing result, it is completed exceptionally
+     *         if processing fails or the executor rejects it
+     */
+    <T> CompletableFuture<T> read(List<Tuple<Path, BasicFileAttributes>> files,
+                                  Function<List<ByteBuffer>, T> stage, Executor exec) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        take(() -> {
+            try {
+                readAll(files).thenApplyAsync(stage, exec)
+                              .whenComplete((value, e) -> {
+                                  free();
+                                  if (e != null) result.completeExceptionally(e);
+                                  else           result.complete(value);
+                              });
+            } catch (RuntimeException e) {
+                free();
+                result.completeExceptionally(e);
+            }
+        });
+        return result;
+    }
+
+    /* reading is started outside of the lock */
+    private void take(Runnable start) {
+        synchronized (this) {
+            if (inFlight >= maxInFlight) {
+                waiting.add(start);
+                return;
+            }
+            inFlight++;
+        }
+        start.run();
+    }
+
+    /* the place goes to the next waiting files, if any */
+    private void free() {
+        Runnable next;
+        synchronized (this) {
+            next = waiting.poll();
+            if (next == null) inFlight--;
+        }
+        if (next != null) next.run();
+    }
+
+    private CompletableFuture<List<ByteBuffer>> readAll(
+                                     List<Tuple<Path, BasicFileAttributes>> files) {
+        List<CompletableFuture<ByteBuffer>> reads = new ArrayList<>(files.size());
+        for (Tuple<Path, BasicFileAttributes> file : files)
+            reads.add(read(file.getFirst(), file.getLast()));
+        return CompletableFuture.allOf(reads.toArray(new CompletableFuture<?>[reads.size()]))
+                                .thenApply(none -> {
+                                    List<ByteBuffer> contents = new ArrayList<>(reads.size());
+                                    for (CompletableFuture<ByteBuffer> read : reads)
+                                        contents.add(read.join());
+                                    return contents;
+                                });
+    }
+
+    /* failed read gives null, file is read again the usual way */
+    private CompletableFuture<ByteBuffer> read(Path file, BasicFileAttributes attributes) {
+        long size = attributes != null ? attributes.size() : sizeLimit;
+        if (size >= sizeLimit) return CompletableFuture.completedFuture(null);
+        CompletableFuture<ByteBuffer> read = new CompletableFuture<>();
+        try {
+            if (throttle != null) throttle.acquire(1, size);
+            AsynchronousFileChannel channel =
+                    AsynchronousFileChannel.open(file, StandardOpenOption.READ);
+            /* file may be changed since its size was known, one more byte shows that */
+            new ReadHandler(channel, read).next(ByteBuffer.allocate((int) size + 1));
+        } catch (IOException | RuntimeException e) {
+            read.complete(null);
+        }
+        return read;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("AsyncReader [maxInFlight=%s, sizeLimit=%s, inFlight=%s, waiting=%s]",
+                             maxInFlight, sizeLimit, inFlight, waiting.size());
+    }
+
+    /*
+     * Reads the file until its end, each next read is issued by the
+     * handler of the previous one
+     */
+    private class ReadHandler implements CompletionHandler<Integer, ByteBuffer> {
+
+        private final AsynchronousFileChannel channel;
+        private final CompletableFuture<ByteBuffer> read;
+
+        ReadHandler(AsynchronousFileChannel channel, CompletableFuture<ByteBuffer> read) {
+            this.channel = channel;
+            this.read = read;
+        }
+
+        void next(ByteBuffer buffer) {
+            try {
+                channel.read(buffer, buffer.position(), buffer, this);
+            } catch (RuntimeException e) {
+                failed(e, buffer);
+            }
+        }
+
+        @Override
+        public void completed(Integer count, ByteBuffer buffer) {
+            if (count < 0) {
+                close();
+                buffer.flip();
+                read.complete(buffer);
+            } else if (buffer.hasRemaining()) {
+                next(buffer);
+            } else if (buffer.capacity() >= sizeLimit) {
+                /* file has grown too much, it is left for the usual way */
+                failed(null, buffer);
+            } else {
+                ByteBuffer bigger = ByteBuffer.allocate(
+                        (int) Math.min(sizeLimit, buffer.capacity() * 2L));
+                buffer.flip();
+                next(bigger.put(buffer));
+            }
+        }
+
+        @Override
+        public void failed(Throwable e, ByteBuffer buffer) {
+            close();
+            read.complete(null);
+        }
+
+        private void close() {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                // bytes already read are fine
+            }
+        }
+    }
+}
@@ -0,0 +1,112 @@
+/**
+ *
+ */
+package dmv.desktop.searchandreplace.service;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+
+/**
+ * Class <tt>BinarySniffer.java</tt> guesses if a file is a binary
+ * one by its first block of bytes, so binaries could be skipped
+ * without reading and decoding them completely.
+ * <p>
+ * A block is considered binary if it starts with a well-known
+ * binary format signature, or if it has too many NUL bytes
+ * (not checked for charsets with two or more bytes per character,
+ * like UTF-16, where NULs are usual), or if too many bytes can not
+ * be decoded with given charset. Text files with occasional
+ * malformed bytes are not skipped, so reading them fails
+ * the usual way.
+ * @author dmv
+ * @since 2017 February 09
+ */
+final class BinarySniffer {
+
+    /** Size of a block to be checked */
+    static final int BLOCK_SIZE = 8192;
+
+    /* Share of NUL or malformed bytes that makes block binary */
+    private static final double NUL_RATIO = 0.1;
+    private static final double MALFORMED_RATIO = 0.1;
+
+    private static final byte[][] SIGNATURES = {
+            {(byte) 0x89, 'P', 'N', 'G'},                 // PNG
+            {'G', 'I', 'F', '8'},                         // GIF
+            {(byte) 0xFF, (byte) 0xD8, (byte) 0xFF},      // JPEG
+            {'P', 'K', 3, 4},                             // ZIP, JAR
+            {0x1F, (byte) 0x8B},                          // GZIP
+            {'B', 'Z', 'h'},                              // BZIP2
+            {'7', 'z', (byte) 0xBC, (byte) 0xAF},         // 7-Zip
+            {'R', 'a', 'r', '!', 0x1A, 7},                // RAR
+            {0x7F, 'E', 'L', 'F'},                        // ELF
+            {(byte) 0xCA, (byte) 0xFE, (byte) 0xBA, (byte) 0xBE}, // Java class
+            {(byte) 0xCF, (byte) 0xFA, (byte) 0xED, (byte) 0xFE}, // Mach-O
+            {'%', 'P', 'D', 'F', '-'},                    // PDF
+            {0, 'a', 's', 'm'},                           // WebAssembly
+            {'S', 'Q', 'L', 'i', 't', 'e', ' ', 'f'},     // SQLite
+            {'I', 'I', '*', 0},                           // TIFF
+            {'M', 'M', 0, '*'},                           // TIFF
+    };
+
+    private BinarySniffer() {}
+
+    /**
+     * Check first block of a file
+     * @param block bytes from the beginning of a file
+     * @param length number of bytes read into the block
+     * @param charset charset the file is expected to be in
+     * @return true if file looks like a binary one
+     */
+    static boolean isBinary(byte[] block, int length, Charset charset) {
+        if (length == 0) return false;
+        if (hasSignature(block, length)) return true;
+        if (!isWide(charset) && countNuls(block, length) > length * NUL_RATIO)
+            return true;
+        return countMalformed(block, length, charset) > length * MALFORMED_RATIO;
+    }
+
+    private static boolean hasSignature(byte[] block, int length) {
+        for (byte[] signature : SIGNATURES) {
+            if (signature.length > length) continue;
+            int i = 0;
+            while (i < signature.length && block[i] == signature[i]) i++;
+            if (i == signature.length) return true;
+        }
+        return false;
+    }
+
+    private static boolean isWide(Charset charset) {
+        return charset.canEncode() &&
+               CharsetCoders.encoder(charset).averageBytesPerChar() >= 2;
+    }
+
+    private static int countNuls(byte[] block, int length) {
+        int nuls = 0;
+        for (int i = 0; i < length; i++)
+            if (block[i] == 0) nuls++;
+        return nuls;
+    }
+
+    /* block may end in the middle of a character, that is not an error */
+    private static int countMalformed(byte[] block, int length, Charset charset) {
+        CharsetDecoder decoder = CharsetCoders.decoder(charset);
+        ByteBuffer in = ByteBuffer.wrap(block, 0, length);
+        CharBuffer out = CharsetCoders.chars(1024);
+        int malformed = 0;
+        while (true) {
+            CoderResult result = decoder.decode(in, out, false);
+            if (result.isOverflow()) {
+                out.clear();
+            } else if (result.isError()) {
+                malformed += result.length();
+                in.position(in.position() + result.length());
+            } else {
+                return malformed;
+            }
+        }
+    }
+}
@@ -0,0 +1,132 @@
+/**
+ *
+ */
+package dmv.desktop.searchandreplace.service;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Class <tt>CharsetCoders.java</tt> keeps decoders, encoders and
+ * buffers of each worker thread, so reading and writing many files
+ * do not allocate them again for every file.
+ * <p>
+ * Coders are kept per charset and are reset before they are given
+ * out, they report malformed and unmappable input (the same as new
+ * ones do). Buffers bigger than {@link #POOLED_LIMIT} are not kept,
+ * so a single huge file does not hold memory of a thread forever.
+ * Anything given out by this class must not be passed to another
+ * thread or used after the next call of the same method.
+ * @author dmv
+ * @since 2017 February 18
+ */
+final class CharsetCoders {
+
+    /** Bigger buffers are not kept by threads */
+    static final int POOLED_LIMIT = 1 << 20;
+
+    /* The same limit as in Files.readAllBytes */
+    private static final int MAX_ARRAY_SIZE = Integer.MAX_VALUE - 8;
+
+    private static final ThreadLocal<Map<Charset, CharsetDecoder>> DECODERS =
+            ThreadLocal.withInitial(HashMap::new);
+    private static final ThreadLocal<Map<Charset, CharsetEncoder>> ENCODERS =
+            ThreadLocal.withInitial(HashMap::new);
+    private static final ThreadLocal<CharBuffer> CHARS =
+            ThreadLocal.withInitial(() -> CharBuffer.allocate(BinarySniffer.BLOCK_SIZE));
+    private static final ThreadLocal<ByteBuffer> BYTES =
+            ThreadLocal.withInitial(() -> ByteBuffer.allocate(BinarySniffer.BLOCK_SIZE));
+
+    private CharsetCoders() {}
+
+    /**
+     * @param charset charset to decode
+     * @return decoder of current thread in its initial state
+     */
+    static CharsetDecoder decoder(Charset charset) {
+        return DECODERS.get()
+                       .computeIfAbsent(charset, Charset::newDecoder)
+                       .reset();
+    }
+
+    /**
+     * @param charset charset to encode
+     * @return encoder of current thread in its initial state
+     */
+    static CharsetEncoder encoder(Charset charset) {
+        return ENCODERS.get()
+                       .computeIfAbsent(charset, Charset::newEncoder)
+                       .reset();
+    }
+
+    /**
+     * Get empty char buffer of current thread
+     * @param capacity required capacity
+     * @return buffer of at least given capacity
+     */
+    static CharBuffer chars(int capacity) {
+        CharBuffer chars = CHARS.get();
+        if (chars.capacity() < capacity) {
+            chars = CharBuffer.allocate(capacity);
+            if (capacity <= POOLED_LIMIT) CHARS.set(chars);
+        }
+        chars.clear();
+        return chars;
+    }
+
+    /**
+     * Keep given buffer (most likely a grown one) for current thread
+     * if it is not too big
+     * @param chars buffer to be kept
+     */
+    static void keep(CharBuffer chars) {
+        if (chars.capacity() <= POOLED_LIMIT && chars.capacity() > CHARS.get().capacity())
+            CHARS.set(chars);
+    }
+
+    /**
+     * Encode content with encoder of current thread into buffer
+     * of current thread
+     * @param content text to be encoded
+     * @param charset charset to encode into
+     * @return buffer ready to be read, valid until the next call
+     * @throws CharacterCodingException if content can't be encoded
+     */
+    static ByteBuffer encode(CharSequence content, Charset charset)
+                                                    throws CharacterCodingException {
+        CharsetEncoder encoder = encoder(charset);
+        CharBuffer in = CharBuffer.wrap(content);
+        ByteBuffer out = BYTES.get();
+        double expected = content.length() * (double) encoder.averageBytesPerChar();
+        if (out.capacity() < expected) 
+            out = ByteBuffer.allocate((int) Math.min(MAX_ARRAY_SIZE, expected + 16));
+        out.clear();
+        while (true) {
+            CoderResult result = encoder.encode(in, out, true);
+            if (result.isOverflow())   out = grow(out);
+            else if (result.isError()) result.throwException();
+            else                       break;
+        }
+        while (encoder.flush(out).isOverflow())
+            out = grow(out);
+        if (out.capacity() <= POOLED_LIMIT) BYTES.set(out);
+        out.flip();
+        return out;
+    }
+
+    private static ByteBuffer grow(ByteBuffer bytes) {
+        if (bytes.capacity() == MAX_ARRAY_SIZE)
+            throw new OutOfMemoryError("Required array size too large");
+        ByteBuffer bigger = ByteBuffer.allocate(
+                (int) Math.min(MAX_ARRAY_SIZE, bytes.capacity() * 2L + 16));
+        bytes.flip();
+        return bigger.put(bytes);
+    }
+}
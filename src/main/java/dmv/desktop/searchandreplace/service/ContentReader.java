@@ -0,0 +1,389 @@
+/**
+ * 
+ */
+package dmv.desktop.searchandreplace.service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Class <tt>ContentReader.java</tt> reads text content of files
+ * choosing {@link ReadStrategy} by file size: files no bigger than
+ * 'tiny' limit are read at once, files smaller than 'large' limit 
+ * are read into per-thread buffers and the rest are decoded
+ * in chunks.
+ * <p>
+ * Files that look like binary ones by their first block of bytes
+ * (see {@link BinarySniffer}) are not decoded, and not read further
+ * if it is not too late. Malformed input is reported the same way 
+ * {@code Files.readAllLines} does. Files read at once or into buffers
+ * may be checked with a {@link SwarMatcher} before decoding, and are
+ * not decoded if their bytes can't contain 'what to find'. Such files
+ * are still checked for malformed input, which is cheaper than decoding
+ * them: only bytes from the first non-ASCII one are passed to a decoder
+ * and nothing is kept.
+ * <p>
+ * Object is immutable and may be shared between threads, files 
+ * read with each strategy are counted in given {@link SearchStatistics}
+ * which also reports limits of this reader. Byte buffers, decoders
+ * and char buffers are kept by each thread and reused for following
+ * files (see {@link CharsetCoders}), only content strings are
+ * allocated for every file.
+ * @author dmv
+ * @since 2017 February 12
+ */
+public class ContentReader {
+
+    /** Default size up to which files are read at once */
+    public static final long DEFAULT_TINY_LIMIT = BinarySniffer.BLOCK_SIZE;
+    /** Default size from which files are read in chunks */
+    public static final long DEFAULT_LARGE_LIMIT = 8 << 20;
+
+    /* The same limit as in Files.readAllBytes */
+    private static final int MAX_ARRAY_SIZE = Integer.MAX_VALUE - 8;
+    private static final int CHUNK_SIZE = 64 << 10;
+    private static final int CHECK_SIZE = 4 << 10;
+
+    private static final ThreadLocal<byte[]> BUFFERS = 
+            ThreadLocal.withInitial(() -> new byte[BinarySniffer.BLOCK_SIZE]);
+    private static final ThreadLocal<ByteBuffer> CHUNKS = 
+            ThreadLocal.withInitial(() -> ByteBuffer.allocate(CHUNK_SIZE));
+
+    private final SearchStatistics statistics;
+    private final long tinyLimit;
+    private final long largeLimit;
+
+    /**
+     * Create reader with default limits
+     * @param statistics counters to be updated by this reader
+     * @throws NullPointerException if argument is null
+     */
+    public ContentReader(SearchStatistics statistics) {
+        this(statistics, DEFAULT_TINY_LIMIT, DEFAULT_LARGE_LIMIT);
+    }
+
+    /**
+     * Create reader with given limits
+     * @param statistics counters to be updated by this reader
+     * @param tinyLimit size in bytes up to which (inclusive) 
+     *                  files are read at once
+     * @param largeLimit size in bytes from which files are
+     *                   read in chunks
+     * @throws NullPointerException if statistics is null
+     * @throws IllegalArgumentException if tinyLimit is negative
+     *                                  or largeLimit is less than it
+     */
+    public ContentReader(SearchStatistics statistics, long tinyLimit, long largeLimit) {
+        Objects.requireNonNull(statistics);
+        if (tinyLimit < 0 || largeLimit < tinyLimit)
+            throw new IllegalArgumentException(
+                    "Read limits must satisfy 0 <= tinyLimit <= largeLimit");
+        this.statistics = statistics;
+        this.tinyLimit = tinyLimit;
+        this.largeLimit = largeLimit;
+        statistics.setReadLimits(tinyLimit, largeLimit);
+    }
+
+    /**
+     * @return size in bytes up to which files are read at once
+     */
+    public long getTinyLimit() {
+        return tinyLimit;
+    }
+
+    /**
+     * @return size in bytes from which files are read in chunks
+     */
+    public long getLargeLimit() {
+        return largeLimit;
+    }
+
+    /**
+     * @return counters updated by this reader
+     */
+    public SearchStatistics getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * Choose the way a file of given size will be read
+     * @param size file size in bytes
+     * @return strategy for such file
+     */
+    public ReadStrategy select(long size) {
+        if (size <= tinyLimit) return ReadStrategy.WHOLE;
+        if (size < largeLimit) return ReadStrategy.BUFFERED;
+        return ReadStrategy.CHUNKED;
+    }
+
+    /**
+     * Read file's text content. File size is taken from given 
+     * attributes if they are known, it is used for choosing
+     * {@link ReadStrategy} only, so the whole file is read even
+     * if it has been changed since.
+     * @param file Path to a file
+     * @param attributes file's attributes read beforehand or null
+     * @param charset charset of the file
+     * @return file's content or null if it is a binary file
+     * @throws IOException if file can't be read or decoded
+     */
+    public String read(Path file, BasicFileAttributes attributes, 
+                       Charset charset) throws IOException {
+        return read(file, attributes, charset, null);
+    }
+
+    /**
+     * Read file's text content at the rate allowed by given throttle.
+     * Files read at once or into buffers are paid for before reading,
+     * big files are paid for by chunks.
+     * @param file Path to a file
+     * @param attributes file's attributes read beforehand or null
+     * @param charset charset of the file
+     * @param throttle limiter of I/O rate or null
+     * @return file's content or null if it is a binary file
+     * @throws IOException if file can't be read or decoded
+     * @see #read(Path, BasicFileAttributes, Charset)
+     */
+    public String read(Path file, BasicFileAttributes attributes, 
+                       Charset charset, IoThrottle throttle) throws IOException {
+        return read(file, attributes, charset, throttle, null);
+    }
+
+    /**
+     * Read file's text content if its bytes contain the sequence of
+     * given prefilter. Only files read at once or into buffers are
+     * checked, big files are decoded by chunks anyway.
+     * @param file Path to a file
+     * @param attributes file's attributes read beforehand or null
+     * @param charset charset of the file
+     * @param throttle limiter of I/O rate or null
+     * @param prefilter matcher of encoded 'what to find' or null
+     * @return file's content or null if it is a binary file or
+     *         its bytes do not contain prefilter's sequence
+     * @throws IOException if file can't be read or decoded, malformed
+     *         input is reported even if the file is not decoded
+     * @see #read(Path, BasicFileAttributes, Charset, IoThrottle)
+     */
+    public String read(Path file, BasicFileAttributes attributes, Charset charset, 
+                       IoThrottle throttle, SwarMatcher prefilter) throws IOException {
+        long size = attributes != null ? attributes.size() : Files.size(file);
+        ReadStrategy strategy = select(size);
+        if (throttle != null)
+            throttle.acquire(1, strategy == ReadStrategy.CHUNKED ? BinarySniffer.BLOCK_SIZE : size);
+        switch (strategy) {
+        case WHOLE:    return readWhole(file, size, charset, prefilter);
+        case BUFFERED: return readBuffered(file, size, charset, prefilter);
+        default:       return readChunked(file, size, charset, throttle);
+        }
+    }
+
+    /**
+     * Decode file's bytes which were read beforehand, they are 
+     * checked the same way bytes read by this reader are. 
+     * Such files are counted as read with {@link ReadStrategy#ASYNC}.
+     * @param bytes file's bytes from position to limit of the buffer
+     * @param charset charset of the file
+     * @param prefilter matcher of encoded 'what to find' or null
+     * @return file's content or null if it is a binary file or
+     *         its bytes do not contain prefilter's sequence
+     * @throws CharacterCodingException if bytes can't be decoded
+     */
+    public String decode(ByteBuffer bytes, Charset charset, 
+                         SwarMatcher prefilter) throws CharacterCodingException {
+        int length = bytes.remaining();
+        byte[] array;
+        if (bytes.hasArray() && bytes.arrayOffset() + bytes.position() == 0) {
+            array = bytes.array();
+        } else {
+            array = new byte[length];
+            bytes.duplicate().get(array);
+        }
+        if (BinarySniffer.isBinary(array, Math.min(length, BinarySniffer.BLOCK_SIZE), charset)) {
+            statistics.binarySkipped(0);
+            return null;
+        }
+        statistics.fileRead(ReadStrategy.ASYNC, length);
+        return decode(array, length, charset, prefilter);
+    }
+
+    private String readWhole(Path file, long size, Charset charset, 
+                             SwarMatcher prefilter) throws IOException {
+        try (SeekableByteChannel channel = open(file)) {
+            byte[] bytes = BUFFERS.get();
+            /* file may be changed since its size was known, one more byte shows that */
+            if (bytes.length <= size) bytes = grow(bytes, size + 1);
+            int length = 0;
+            while ((length += read(channel, ByteBuffer.wrap(bytes, length, bytes.length - length))) 
+                                                                            == bytes.length)
+                bytes = grow(bytes, bytes.length * 2L);
+            keep(bytes);
+            if (BinarySniffer.isBinary(bytes, Math.min(length, BinarySniffer.BLOCK_SIZE), charset)) {
+                statistics.binarySkipped(0);
+                return null;
+            }
+            statistics.fileRead(ReadStrategy.WHOLE, length);
+            return decode(bytes, length, charset, prefilter);
+        }
+    }
+
+    private String readBuffered(Path file, long size, Charset charset, 
+                                SwarMatcher prefilter) throws IOException {
+        try (SeekableByteChannel channel = open(file)) {
+            byte[] bytes = BUFFERS.get();
+            int length = read(channel, ByteBuffer.wrap(bytes, 0, BinarySniffer.BLOCK_SIZE));
+            if (BinarySniffer.isBinary(bytes, length, charset)) {
+                statistics.binarySkipped(Math.max(0, size - length));
+                return null;
+            }
+            /* file may be changed since its size was known, one more byte shows that */
+            if (length == BinarySniffer.BLOCK_SIZE) {
+                if (bytes.length <= size) bytes = grow(bytes, size + 1);
+                while ((length += read(channel, ByteBuffer.wrap(bytes, length, bytes.length - length))) 
+                                                                                == bytes.length)
+                    bytes = grow(bytes, bytes.length * 2L);
+            }
+            keep(bytes);
+            statistics.fileRead(ReadStrategy.BUFFERED, length);
+            return decode(bytes, length, charset, prefilter);
+        }
+    }
+
+    private String readChunked(Path file, long size, Charset charset, 
+                               IoThrottle throttle) throws IOException {
+        try (SeekableByteChannel channel = open(file)) {
+            ByteBuffer chunk = CHUNKS.get();
+            chunk.clear();
+            chunk.limit(BinarySniffer.BLOCK_SIZE);
+            long length = read(channel, chunk);
+            if (BinarySniffer.isBinary(chunk.array(), (int) length, charset)) {
+                statistics.binarySkipped(Math.max(0, size - length));
+                return null;
+            }
+            chunk.limit(chunk.capacity());
+            CharsetDecoder decoder = CharsetCoders.decoder(charset);
+            CharBuffer out = CharsetCoders.chars(
+                    (int) Math.min(MAX_ARRAY_SIZE, size * (double) decoder.averageCharsPerByte() + 16));
+            boolean endOfInput = false;
+            while (!endOfInput) {
+                if (throttle != null) throttle.acquire(0, chunk.remaining());
+                length += read(channel, chunk);
+                /* buffer is not full only at the end of file */
+                endOfInput = chunk.hasRemaining();
+                chunk.flip();
+                out = decode(decoder, chunk, out, endOfInput);
+                chunk.compact();
+            }
+            while (decoder.flush(out).isOverflow()) 
+                out = grow(out);
+            statistics.fileRead(ReadStrategy.CHUNKED, length);
+            CharsetCoders.keep(out);
+            out.flip();
+            return out.toString();
+        }
+    }
+
+    /* time of I/O is reported to ReadLimiter, so it does not count decoding */
+    private static SeekableByteChannel open(Path file) throws IOException {
+        long start = System.nanoTime();
+        try {
+            return Files.newByteChannel(file);
+        } finally {
+            ReadLimiter.reportIoTime(System.nanoTime() - start);
+        }
+    }
+
+    /* read until buffer is full or file is over */
+    private static int read(ReadableByteChannel channel, ByteBuffer buffer) throws IOException {
+        long time = System.nanoTime();
+        int start = buffer.position();
+        while (buffer.hasRemaining() && channel.read(buffer) >= 0);
+        ReadLimiter.reportIoTime(System.nanoTime() - time);
+        return buffer.position() - start;
+    }
+
+    private static void keep(byte[] bytes) {
+        if (bytes.length <= CharsetCoders.POOLED_LIMIT) BUFFERS.set(bytes);
+    }
+
+    private String decode(byte[] bytes, int length, Charset charset, 
+                          SwarMatcher prefilter) throws CharacterCodingException {
+        if (prefilter != null && prefilter.indexOf(bytes, 0, length) < 0) {
+            checkWellFormed(bytes, length, charset);
+            statistics.fileNotDecoded();
+            return null;
+        }
+        CharsetDecoder decoder = CharsetCoders.decoder(charset);
+        CharBuffer out = CharsetCoders.chars(
+                (int) Math.min(MAX_ARRAY_SIZE, length * (double) decoder.maxCharsPerByte() + 16));
+        out = decode(decoder, ByteBuffer.wrap(bytes, 0, length), out, true);
+        while (decoder.flush(out).isOverflow()) 
+            out = grow(out);
+        CharsetCoders.keep(out);
+        out.flip();
+        return out.toString();
+    }
+
+    /*
+     * Malformed input of a file which is not decoded is reported anyway.
+     * Prefilter's charsets are ASCII compatible, so leading ASCII bytes
+     * are skipped and the rest is decoded into a small reused buffer
+     */
+    private static void checkWellFormed(byte[] bytes, int length, 
+                                        Charset charset) throws CharacterCodingException {
+        int first = SwarMatcher.indexOfNonAscii(bytes, 0, length);
+        if (first < 0) return;
+        CharsetDecoder decoder = CharsetCoders.decoder(charset);
+        ByteBuffer in = ByteBuffer.wrap(bytes, first, length - first);
+        CharBuffer out = CharsetCoders.chars(CHECK_SIZE);
+        while (true) {
+            CoderResult result = decoder.decode(in, out, true);
+            if (result.isOverflow())   out.clear();
+            else if (result.isError()) result.throwException();
+            else                       return;
+        }
+    }
+
+    /* incomplete character at the end of input is left in the buffer */
+    private static CharBuffer decode(CharsetDecoder decoder, ByteBuffer in, CharBuffer out, 
+                                     boolean endOfInput) throws CharacterCodingException {
+        while (true) {
+            CoderResult result = decoder.decode(in, out, endOfInput);
+            if (result.isOverflow())   out = grow(out);
+            else if (result.isError()) result.throwException();
+            else                       return out;
+        }
+    }
+
+    private static byte[] grow(byte[] bytes, long size) {
+        if (bytes.length == MAX_ARRAY_SIZE)
+            throw new OutOfMemoryError("Required array size too large");
+        return Arrays.copyOf(bytes, (int) Math.min(MAX_ARRAY_SIZE, size));
+    }
+
+    private static CharBuffer grow(CharBuffer chars) {
+        if (chars.capacity() == MAX_ARRAY_SIZE)
+            throw new OutOfMemoryError("Required array size too large");
+        CharBuffer bigger = CharBuffer.allocate(
+                (int) Math.min(MAX_ARRAY_SIZE, chars.capacity() * 2L + 16));
+        chars.flip();
+        return bigger.put(chars);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ContentReader [tinyLimit=%s, largeLimit=%s]",
+                             tinyLimit, largeLimit);
+    }
+}
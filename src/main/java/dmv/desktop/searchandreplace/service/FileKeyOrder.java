@@ -0,0 +1,65 @@
+/**
+ * 
+ */
+package dmv.desktop.searchandreplace.service;
+
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Comparator;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Class <tt>FileKeyOrder.java</tt> compares files by their
+ * {@link BasicFileAttributes#fileKey() keys}, i.e. by device and
+ * inode numbers on Unix-like systems, which roughly follows the
+ * order of files data on a disk.
+ * <p>
+ * File keys are opaque objects, so they are compared by device and
+ * inode numbers parsed from their string form (like "(dev=803,ino=1234)"),
+ * or as they are if they are {@link Comparable}. Files with unknown keys
+ * are placed after all others and keep their order.
+ * @author dmv
+ * @since 2017 February 16
+ */
+final class FileKeyOrder implements Comparator<BasicFileAttributes> {
+
+    /** The only instance */
+    static final FileKeyOrder INSTANCE = new FileKeyOrder();
+
+    /* device number is hexadecimal in Unix file keys */
+    private static final Pattern UNIX_KEY = Pattern.compile("\\(dev=(\\p{XDigit}+),ino=(\\d+)\\)");
+
+    private FileKeyOrder() {}
+
+    @Override
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public int compare(BasicFileAttributes attrs1, BasicFileAttributes attrs2) {
+        Object key1 = attrs1 != null ? attrs1.fileKey() : null;
+        Object key2 = attrs2 != null ? attrs2.fileKey() : null;
+        if (key1 == null || key2 == null)
+            return Boolean.compare(key1 == null, key2 == null);
+        long[] numbers1 = parse(key1);
+        long[] numbers2 = parse(key2);
+        if (numbers1 != null && numbers2 != null) {
+            int result = Long.compareUnsigned(numbers1[0], numbers2[0]);
+            return result != 0 ? result : Long.compareUnsigned(numbers1[1], numbers2[1]);
+        }
+        if (numbers1 != null || numbers2 != null)
+            return Boolean.compare(numbers1 == null, numbers2 == null);
+        if (key1 instanceof Comparable && key1.getClass() == key2.getClass())
+            return ((Comparable) key1).compareTo(key2);
+        return 0;
+    }
+
+    /* device and inode numbers or null if key has another form */
+    private static long[] parse(Object key) {
+        Matcher matcher = UNIX_KEY.matcher(key.toString());
+        if (!matcher.matches()) return null;
+        try {
+            return new long[]{Long.parseUnsignedLong(matcher.group(1), 16),
+                              Long.parseUnsignedLong(matcher.group(2))};
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -3,8 +3,10 @@
  */
 package dmv.desktop.searchandreplace.service;
 
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
 import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
 
 import dmv.desktop.searchandreplace.model.Exclusions;
 import dmv.desktop.searchandreplace.model.SearchProfile;
@@ -43,15 +45,79 @@ public interface FileReplacer {
      */
     void setFile(Path file);
     
+    /**
+     * Set file path along with its attributes which were read 
+     * beforehand (e.g. while folder was being traversed), so
+     * they won't be read again. File size is used as a hint
+     * for reading buffer size only, so it is fine if file has 
+     * been changed since then. Otherwise, it is the same as 
+     * {@link #setFile(Path)}.
+     * @param file Path to a file
+     * @param attributes file's attributes or null if they are unknown
+     * @throws NullPointerException if file is null
+     */
+    void setFile(Path file, BasicFileAttributes attributes);
+    
+    /**
+     * Set file path and attributes along with file's bytes which
+     * were read beforehand (e.g. asynchronously), so the next reading 
+     * operation decodes them instead of reading the file. Following 
+     * reading operations (e.g. after charset change) read the file
+     * itself. Otherwise, it is the same as 
+     * {@link #setFile(Path, BasicFileAttributes)}.
+     * @param file Path to a file
+     * @param attributes file's attributes or null if they are unknown
+     * @param content file's bytes (from position to limit of the buffer)
+     *                or null if the file must be read
+     * @throws NullPointerException if file is null
+     */
+    void setFile(Path file, BasicFileAttributes attributes, ByteBuffer content);
+    
+    /**
+     * Get file's attributes given along with the file
+     * @return file's attributes or null if they were not given
+     */
+    BasicFileAttributes getAttributes();
+    
+    /**
+     * Set scanner for splitting very big content between threads,
+     * found spots are the same as if content was scanned by
+     * a single thread. Current state is not changed.
+     * @param scanner scanner to be used by following operations,
+     *                or null if content must be scanned by 
+     *                calling thread only
+     */
+    void setScanner(ParallelScanner scanner);
+    
+    /**
+     * Set limiter of I/O rate for reading and writing file's
+     * content. Rates may be changed through the throttle itself
+     * while operations are in progress. Current state is not changed.
+     * @param throttle limiter to be used by following operations,
+     *                 or null if I/O rate is not limited
+     */
+    void setThrottle(IoThrottle throttle);
+    
+    /**
+     * Set planner of renaming, so a file is not renamed when
+     * its result is written, its result keeps the desired new name
+     * and the file is renamed by {@link RenamePlanner#rename(java.util.List)}
+     * along with others. Current state is not changed.
+     * @param planner planner of files renamed together, or null
+     *                if the file is renamed right after being
+     *                written, checking taken names in the file system
+     */
+    void setRenamePlanner(RenamePlanner planner);
+    
     /**
      * Set {@link SearchProfile} with 'How or What to find and 
      * replace' information.
      * <p>
      * May require another file reading operation or re-computation:
      * <p>
-     * new {@link Charset} will set for a new file reading operation
-     * (i.e. State will become {@link SearchAndReplace.State#BEFORE_FIND
-     * BEFORE_FIND} again),
+     * new {@link Charset} or 'multiline' rule will set for a new file 
+     * reading operation (i.e. State will become 
+     * {@link SearchAndReplace.State#BEFORE_FIND BEFORE_FIND} again),
      * <p>
      * new 'What to find' expression will require cached content rescanning 
      * (State will be {@link SearchAndReplace.State#FIND_OTHER FIND_OTHER}
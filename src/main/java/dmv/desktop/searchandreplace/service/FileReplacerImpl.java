@@ -5,12 +5,14 @@ package dmv.desktop.searchandreplace.service;
 
 import static dmv.desktop.searchandreplace.service.SearchAndReplace.State.*;
 import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
 
-import java.io.BufferedWriter;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
 import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.*;
-import java.util.stream.Collectors;
 
 import dmv.desktop.searchandreplace.collection.Tuple;
 import dmv.desktop.searchandreplace.collection.TupleImpl;
@@ -22,27 +24,75 @@ import dmv.desktop.searchandreplace.service.SearchAndReplace.State;
  * Class <tt>FileReplacerImpl.java</tt> implements
  * {@link  FileReplacer} interface enforcing its invariants
  * (i.e. file and profile must not be null).
+ * <p>
+ * Whole content is kept as a single string and content markers
+ * hold offsets in it (with line number 0). Lines are searched one
+ * by one without being copied, unless it is {@link SearchProfile#isMultiline() 
+ * multiline} mode, where the whole string is searched. Starts of lines
+ * are indexed only when markers of cached content are checked again.
+ * Modified content is given back line by line, except for lines
+ * joined together by a replacement spanning them.
+ * <p>
+ * Replacements are spliced into original content, so the file
+ * is written back with the same line separators (and with or without 
+ * trailing one) with a single write operation.
+ * <p>
+ * Content of very big files may be scanned in parallel if
+ * {@link ParallelScanner} is set, markers are the same as if it 
+ * was scanned sequentially.
+ * <p>
+ * Content is read by {@link ContentReader}, which chooses the way
+ * to read by file size. Files that look like binary ones by their 
+ * first block of bytes (see {@link BinarySniffer}) are not read 
+ * further and have no content replacements, though they still 
+ * may be renamed. So are files whose bytes can't contain
+ * 'what to find' (see {@link SwarMatcher}), they are not decoded.
+ * Bytes of a file may be given along with it, if they were read
+ * beforehand (see {@link AsyncReader}). Files read in chunks are
+ * written by copying their unchanged bytes (see {@link SpliceWriter}).
+ * If profile's content rule is off, files are not read at all and
+ * may only be renamed. Reads and writes may be slowed down to the rate
+ * of given {@link IoThrottle}. If a {@link RenamePlanner} is given,
+ * files are not renamed by this object, that is left to the planner.
+ * Otherwise a new name taken by another file is resolved by checking
+ * the file system, and an existing file is never replaced.
  * @author dmv
  * @since 2017 January 06
  */
 public class FileReplacerImpl implements FileReplacer {
     
+    /* Bigger lists are not kept when object is reset for another file */
+    private static final int REUSED_LIST_SIZE = 1024;
+    
+    private final ContentReader reader;
+    private ParallelScanner scanner;
+    private IoThrottle throttle;
+    private RenamePlanner planner;
     private Path file;
+    private BasicFileAttributes attributes;
+    /* Bytes read beforehand, they are dropped once decoded */
+    private ByteBuffer preloaded;
     private SearchProfile profile;
+    /* binary file or file without 'what to find' was not decoded */
+    private boolean undecoded;
+    private SwarMatcher prefilter;
     private boolean replacements;
     private State state;
-    private List<String> content;
+    /* Whole content, lines are not split */
+    private String text;
+    /* Index of each line's start, computed only when markers are checked again */
+    private int[] lineStarts;
     private List<ReplaceMarker> filenameMarkers;
     private List<ReplaceMarker> contentMarkers;
     
     /* Cached result */
     private SearchResult result;
+    /* Scanner of current profile's pattern */
+    private SearchPattern.Finder finder;
     /* Temporary variables for result creation */
     private String fileName;
     private String replaceWith;
     private int modifications;
-    private int toFindLength;
-    private int shift;
 
     /*
      * There is no default constructor by-design,
@@ -56,7 +106,33 @@ public class FileReplacerImpl implements FileReplacer {
      * @throws NullPointerException if either of arguments is null
      */
     public FileReplacerImpl(Path file, SearchProfile profile) {
-        setFile(file);
+        this(file, null, profile, new ContentReader(new SearchStatistics()));
+    }
+    
+    /**
+     * Creates new instance with given arguments
+     * @param file Path to a file
+     * @param profile 'What to find and replace' profile
+     * @param statistics counters to be updated by this object
+     * @throws NullPointerException if either of arguments is null
+     */
+    public FileReplacerImpl(Path file, SearchProfile profile, SearchStatistics statistics) {
+        this(file, null, profile, new ContentReader(statistics));
+    }
+    
+    /**
+     * Creates new instance with given arguments
+     * @param file Path to a file
+     * @param attributes file's attributes read beforehand or null
+     * @param profile 'What to find and replace' profile
+     * @param reader reader of file's content (may be shared)
+     * @throws NullPointerException if file, profile or reader is null
+     */
+    public FileReplacerImpl(Path file, BasicFileAttributes attributes,
+                            SearchProfile profile, ContentReader reader) {
+        Objects.requireNonNull(reader);
+        this.reader = reader;
+        setFile(file, attributes);
         setProfile(profile);
     }
     
@@ -67,20 +143,56 @@ public class FileReplacerImpl implements FileReplacer {
 
     @Override
     public void setFile(Path file) {
+        setFile(file, null);
+    }
+
+    @Override
+    public void setFile(Path file, BasicFileAttributes attributes) {
+        setFile(file, attributes, null);
+    }
+
+    @Override
+    public void setFile(Path file, BasicFileAttributes attributes, ByteBuffer content) {
         Objects.requireNonNull(file);
         resetToBeforeFind();
         // Path object is immutable
         this.file = file;
+        this.attributes = attributes;
+        preloaded = content;
         fileName = file.getFileName().toString();
     }
 
+    @Override
+    public BasicFileAttributes getAttributes() {
+        return attributes;
+    }
+
+    @Override
+    public void setScanner(ParallelScanner scanner) {
+        this.scanner = scanner;
+    }
+
+    @Override
+    public void setThrottle(IoThrottle throttle) {
+        this.throttle = throttle;
+    }
+
+    @Override
+    public void setRenamePlanner(RenamePlanner planner) {
+        this.planner = planner;
+    }
+
     @Override
     public void setProfile(SearchProfile profile) {
         Objects.requireNonNull(profile);
         checkProfile(profile);
         replaceWith = profile.getReplaceWith();
-        toFindLength = profile.getToFind().length();   
-        shift = replaceWith.length() - toFindLength;
+        if (finder == null || 
+            !this.profile.getSearchPattern().equals(profile.getSearchPattern()) ||
+            !this.profile.getCharset().equals(profile.getCharset())) {
+            finder = profile.getSearchPattern().finder();
+            prefilter = SwarMatcher.forPattern(profile.getSearchPattern(), profile.getCharset());
+        }
         // SearchProfile object is immutable
         this.profile = profile;
     }
@@ -121,74 +233,146 @@ public class FileReplacerImpl implements FileReplacer {
     private void readContent() {
         try {
             parseName();
-            if (state.equals(BEFORE_FIND))
-                Files.readAllLines(file, profile.getCharset())
-                     .forEach(this::parseContentLine);
-            else rescanContent();
+            if (state.equals(BEFORE_FIND)) {
+                String read;
+                if (!profile.isContent()) {
+                    /* only the name is replaced, file is not even opened */
+                    preloaded = null;
+                    read = null;
+                } else if (preloaded != null) {
+                    ByteBuffer content = preloaded;
+                    preloaded = null;
+                    read = reader.decode(content, profile.getCharset(), prefilter);
+                } else {
+                    read = reader.read(file, attributes, profile.getCharset(), 
+                                       throttle, prefilter);
+                }
+                if (read == null) undecoded = true;
+                else              text = read;
+            }
+            scanContent();
             state = AFTER_FOUND;
         } catch (IOException | SecurityException e) {
-            content = new ArrayList<>();
+            text = "";
             interrupt(e);
         }
     }
 
-    private void rescanContent() {
-        int idx = 0;
-        for (String line : content) 
-            if (containsReplacement(contentMarkers, line, idx++))
-                replacements = true;
+    /*
+     * Big content is split into regions scanned in parallel, 
+     * regions of lines are independent, while regions of 
+     * multiline text are merged (see mergeRegions)
+     */
+    private void scanContent() {
+        int regions = scanner != null ? scanner.regions(text.length()) : 1;
+        if (regions == 1) {
+            if (profile.isMultiline()) 
+                containsReplacement(contentMarkers, new TextRange(text), 0, finder);
+            else
+                scanLines(contentMarkers, 0, text.length(), finder);
+        } else if (profile.isMultiline()) {
+            long step = (text.length() + regions - 1L) / regions;
+            mergeRegions(scanner.scan(regions, region -> 
+                    scanText((int) Math.min(text.length(), region * step), 
+                             (int) Math.min(text.length(), (region + 1) * step))));
+        } else {
+            /* each region is scanned with its own finder */
+            long step = (text.length() + regions - 1L) / regions;
+            scanner.scan(regions, region -> 
+                    scanLines(new ArrayList<>(), lineStartFrom(region * step), 
+                              lineStartFrom((region + 1) * step), 
+                              profile.getSearchPattern().finder()))
+                   .forEach(contentMarkers::addAll);
+        }
+        if (contentMarkers.size() > 0)
+            replacements = true;
+    }
+
+    /* lines starting within given part of the text are scanned without copying */
+    private List<ReplaceMarker> scanLines(List<ReplaceMarker> markers, int from, int to,
+                                          SearchPattern.Finder finder) {
+        TextRange line = new TextRange(text);
+        int lineStart = from;
+        while (lineStart < to) {
+            int lineEnd = lineEnd(text, lineStart);
+            containsReplacement(markers, line.set(lineStart, lineEnd), 0, finder);
+            lineStart = nextLine(text, lineEnd);
+        }
+        return markers;
+    }
+
+    /* start of the first line at or after given index */
+    private int lineStartFrom(long index) {
+        if (index >= text.length()) return text.length();
+        int from = (int) index;
+        if (from == 0) return 0;
+        char before = text.charAt(from - 1);
+        if (before == '\n' || before == '\r' && text.charAt(from) != '\n') return from;
+        return nextLine(text, lineEnd(text, from));
+    }
+
+    /* spots starting within the region, they may end beyond it */
+    private List<ReplaceMarker> scanText(int from, int to) {
+        SearchPattern.Finder finder = profile.getSearchPattern().finder().reset(text);
+        TextRange whole = new TextRange(text);
+        List<ReplaceMarker> markers = new ArrayList<>();
+        boolean found = finder.find(from);
+        while (found && finder.start() < to) {
+            markers.add(createMarker(0, finder, whole));
+            found = finder.find();
+        }
+        return markers;
+    }
+
+    /*
+     * Spots found from a region's start may overlap with the last
+     * spot of previous regions (or miss the one right after it),
+     * so such spots are searched again sequentially until both
+     * searches meet at the same spot
+     */
+    private void mergeRegions(List<List<ReplaceMarker>> regions) {
+        finder.reset(text);
+        TextRange whole = new TextRange(text);
+        for (List<ReplaceMarker> region : regions) {
+            int taken = 0;
+            if (contentMarkers.size() > 0 && region.size() > 0) {
+                ReplaceMarker last = contentMarkers.get(contentMarkers.size() - 1);
+                if (region.get(0).getStartIndex() <= last.getStartIndex() + last.getLength()) {
+                    /* finds the last spot again, so the next one is found sequentially */
+                    boolean found = finder.find(last.getStartIndex());
+                    while (taken < region.size() && (found = finder.find())) {
+                        while (taken < region.size() && 
+                               region.get(taken).getStartIndex() < finder.start()) 
+                            taken++;
+                        if (taken < region.size() && isFound(region.get(taken))) break;
+                        contentMarkers.add(createMarker(0, finder, whole));
+                    }
+                    if (!found) taken = region.size();
+                }
+            }
+            contentMarkers.addAll(region.subList(taken, region.size()));
+        }
+    }
+
+    private boolean isFound(ReplaceMarker marker) {
+        return marker.getStartIndex() == finder.start() &&
+               marker.getLength() == finder.end() - finder.start();
     }
 
     private void parseName() {
         /* filename index */
         int idx = -1;
-        if (containsReplacement(filenameMarkers, fileName, idx))
+        if (containsReplacement(filenameMarkers, new TextRange(fileName), idx, finder))
             replacements = true;
     }
 
-    private void parseContentLine(String line) {
-        // copy line and find markers
-        content.add(line);
-        int idx = content.size() - 1;
-        if (containsReplacement(contentMarkers, line, idx))
-            replacements = true;
-    }
-
-    private boolean containsReplacement(List<ReplaceMarker> markers, String line, int idx) {
+    private boolean containsReplacement(List<ReplaceMarker> markers, TextRange range, int idx,
+                                        SearchPattern.Finder finder) {
         /* track changes */
         int markedBefore = markers.size();
-        /* 
-         * start  - index mark where toFind word starts 
-         * end    - content line cursor
-         * finder - toFind word cursor
-         */
-        int start = 0, finder = 0, end = 0;
-        /* if we are scanning inside toFind word */
-        boolean started = false;
-        String toFind = profile.getToFind();
-        char findChar = toFind.charAt(finder), lineChar;
-        for (; end < line.length(); end++) {
-            lineChar = line.charAt(end);
-            // reset finder on miss
-            if (started && lineChar != findChar) {
-                started = false;
-                finder = 0;
-                findChar = toFind.charAt(finder);
-            }
-            if (lineChar == findChar) {
-                if (!started) {
-                    start = end;
-                    started = true;
-                }
-                // reset finder on hit, add marker    
-                if (++finder == toFind.length()) {
-                    markers.add(createMarker(idx, start, end + 1, line));
-                    started = false;
-                    finder = 0;
-                }
-                findChar = toFind.charAt(finder);
-            }
-        }
+        finder.reset(range.input());
+        while (finder.find())
+            markers.add(createMarker(idx, finder, range));
         return markedBefore != markers.size();
     }
 
@@ -209,12 +393,10 @@ public class FileReplacerImpl implements FileReplacer {
         StringBuilder newName = null;
         if (profile.isFileName() && filenameMarkers.size() > 0) {
             newName = new StringBuilder(fileName);
-            int shiftCount = 0, start, end;
+            int shift = 0;
             for (ReplaceMarker marker : filenameMarkers) {
                 if (!marker.isExcluded()) {
-                    start = marker.getStartIndex() + shift * shiftCount++;
-                    end = start + toFindLength;
-                    newName.replace(start, end, replaceWith);
+                    shift += replace(newName, marker, shift);
                     ++modifications;
                 }
             }
@@ -224,80 +406,116 @@ public class FileReplacerImpl implements FileReplacer {
                     Paths.get(file.getParent() + "/" + newName) : null;
     }
 
+    /*
+     * Split whole content into lines, lines touched by
+     * the same replacement (in multiline mode only) are kept 
+     * together in one tuple with their original line separators.
+     * Spots at the very end of the text belong to the last line
+     */
     private List<Tuple<String, String>> getModifiedContent() {
-        List<Tuple<String, String>> modifiedContent = addOriginalLines();
+        List<Tuple<String, String>> modifiedContent = new ArrayList<>();
         checkContentType(modifiedContent);
-        if (contentMarkers.size() > 0) {
-            /* this empty set will be skipped as not modified */
-            int idx = -1;
-            StringBuilder newLine = null;
-            boolean modified = false;
-            /* each marker except first one may be shifted */
-            int shiftCount = 0, start, end;
-            for (ReplaceMarker marker : contentMarkers) {
-                if (idx < marker.getLineNumber()) {
-                    /* add modified line */
-                    if (modified) 
-                        modifiedContent.get(idx)
-                                       .setLast(newLine.toString());
-                    idx = marker.getLineNumber();
-                    modified = false;
-                    shiftCount = 0;
-                    newLine = new StringBuilder(content.get(idx));
-                }
-                if (!marker.isExcluded()) {
-                    start = marker.getStartIndex() + shift * shiftCount++;
-                    end = start + toFindLength;
-                    newLine.replace(start, end, replaceWith);
-                    modified = true;
+        Iterator<ReplaceMarker> markers = contentMarkers.iterator();
+        ReplaceMarker marker = nextIncluded(markers);
+        int lineStart = 0;
+        while (lineStart < text.length()) {
+            int lineEnd = lineEnd(text, lineStart);
+            int nextLine = nextLine(text, lineEnd);
+            if (marker == null || !isWithin(marker, nextLine)) {
+                modifiedContent.add(new TupleImpl<>(text.substring(lineStart, lineEnd), null));
+            } else {
+                StringBuilder newLines = new StringBuilder();
+                int copied = lineStart;
+                /* take markers while they start within joined lines */
+                while (marker != null && isWithin(marker, nextLine)) {
+                    int end = marker.getStartIndex() + marker.getLength();
+                    if (end > lineEnd) {
+                        lineEnd = lineEnd(text, end);
+                        nextLine = nextLine(text, lineEnd);
+                    }
+                    newLines.append(text, copied, marker.getStartIndex())
+                            .append(replacementOf(marker));
+                    copied = end;
                     ++modifications;
+                    marker = nextIncluded(markers);
                 }
+                newLines.append(text, copied, lineEnd);
+                modifiedContent.add(new TupleImpl<>(text.substring(lineStart, lineEnd), 
+                                                    newLines.toString()));
             }
-            /* last modified line */
-            if (modified) 
-                modifiedContent.get(idx)
-                               .setLast(newLine.toString());
+            lineStart = nextLine;
         }
         return modifiedContent;
     }
 
-    private List<Tuple<String, String>> addOriginalLines() {
-        return content.stream()
-                      .map(line -> new TupleImpl<String, String>(line, null))
-                      .collect(Collectors.toList());
+    private boolean isWithin(ReplaceMarker marker, int nextLine) {
+        return marker.getStartIndex() < nextLine || nextLine == text.length();
+    }
+
+    private ReplaceMarker nextIncluded(Iterator<ReplaceMarker> markers) {
+        while (markers.hasNext()) {
+            ReplaceMarker marker = markers.next();
+            if (!marker.isExcluded()) return marker;
+        }
+        return null;
+    }
+
+    /* index of line separator at or after given index */
+    private int lineEnd(String text, int from) {
+        for (int i = from; i < text.length(); i++) {
+            char ch = text.charAt(i);
+            if (ch == '\n' || ch == '\r') return i;
+        }
+        return text.length();
+    }
+
+    /* index after line separator ("\n", "\r" or "\r\n") */
+    private int nextLine(String text, int lineEnd) {
+        if (lineEnd == text.length()) return lineEnd;
+        if (text.charAt(lineEnd) == '\r' && lineEnd + 1 < text.length() &&
+            text.charAt(lineEnd + 1) == '\n')
+            return lineEnd + 2;
+        return lineEnd + 1;
+    }
+
+    /* replace marked word and return the shift it made */
+    private int replace(StringBuilder line, ReplaceMarker marker, int shift) {
+        String replacement = replacementOf(marker);
+        int start = marker.getStartIndex() + shift;
+        line.replace(start, start + marker.getLength(), replacement);
+        return replacement.length() - marker.getLength();
     }
 
+    private String replacementOf(ReplaceMarker marker) {
+        return marker.getReplacement() != null ? 
+                    marker.getReplacement() : replaceWith;
+    }
+
+
     private SearchResult writeFile() {
         if (state.getAdvance() > COMPUTED.getAdvance()) 
             return result;
         checkComputedState();
         
-        try (BufferedWriter writer = 
-                Files.newBufferedWriter(file, profile.getCharset(), TRUNCATE_EXISTING)) {
-            result.getModifiedContent()
-                  .stream()
-                  .map(tuple -> tuple.getLast() != null ? tuple.getLast() : tuple.getFirst())
-                  .forEach(line -> {
-                        try {
-                            writer.write(line);
-                            writer.newLine();
-                        } catch (IOException e) {
-                            interrupt(e);
-                        }
-                    });
+        try {
+            /* binary file or file without 'what to find' may only be renamed */
+            if (!undecoded && !spliceFile()) {
+                ByteBuffer bytes = CharsetCoders.encode(spliceContent(), profile.getCharset());
+                if (throttle != null) throttle.acquire(1, bytes.remaining());
+                try (SeekableByteChannel channel = Files.newByteChannel(file, WRITE, TRUNCATE_EXISTING)) {
+                    while (bytes.hasRemaining()) channel.write(bytes);
+                }
+            }
         } catch (Exception e) {
             interrupt(e);
+            return result;
         }
-        // as stream doesn't propagate exceptions outside, 
-        // check for it here, also after main catch block
-        if (result.isExceptional()) return result;
         
         try {
             Path newPath = result.getModifiedName().getLast();
-            if (newPath != null) {
-                file = Files.move(file, 
-                                  resolveCollisions(newPath),
-                                  StandardCopyOption.ATOMIC_MOVE);
+            /* planner renames files of the whole pass together */
+            if (newPath != null && planner == null) {
+                file = Files.move(file, resolveCollisions(newPath));
                 fileName = file.getFileName().toString();
             }
         } catch (Exception e) {
@@ -310,40 +528,59 @@ public class FileReplacerImpl implements FileReplacer {
         return result;
     }
     
+    /* 
+     * Files read in chunks are written by copying unchanged bytes,
+     * unless they have been changed since they were read
+     */
+    private boolean spliceFile() throws IOException {
+        return attributes != null && 
+               attributes.size() >= reader.getLargeLimit() &&
+               SpliceWriter.isSupported(profile.getCharset()) &&
+               SpliceWriter.write(file, attributes, text, contentMarkers, this::replacementOf, 
+                                  profile.getCharset(), throttle);
+    }
+    
+    /* original content with replacements spliced in */
+    private CharSequence spliceContent() {
+        StringBuilder modified = new StringBuilder(text.length());
+        int copied = 0;
+        for (ReplaceMarker marker : contentMarkers) {
+            if (marker.isExcluded()) continue;
+            modified.append(text, copied, marker.getStartIndex())
+                    .append(replacementOf(marker));
+            copied = marker.getStartIndex() + marker.getLength();
+        }
+        return modified.append(text, copied, text.length());
+    }
+
+    /* move without options fails if the name was taken after the check */
     private Path resolveCollisions(Path path) {
-        if (Files.exists(path)) {
-            Random rand = new Random();
-            String folder = path.getParent().toString() + "/";
-            String filename = path.getFileName().toString();
-            StringBuilder builder = new StringBuilder(filename); 
-            int beforeLastDot = builder.lastIndexOf(".");
-            beforeLastDot = beforeLastDot != -1 ? beforeLastDot :
-                                                  builder.length();
-            Path newPath = null;
-            do {
-                builder.insert(beforeLastDot, "_" + rand.nextInt(10));
-                newPath = Paths.get(folder + builder.toString());
-            }
-            while (Files.exists(newPath));
-            
+        Path newPath = RenamePlanner.firstFree(path, Files::exists);
+        if (!newPath.equals(path))
             updateResultWith(new TupleImpl<>(this.file, newPath));
-            return newPath;
-        }
-        return path;
+        return newPath;
     }
 
-    private ReplaceMarker createMarker(int idx, int start, int end, String line) {
-        return new ReplaceMarker(idx, start, isExcluded(profile.getExclusions(), start, end, line));
+    /* marker holds index in the whole text, not in the range */
+    private ReplaceMarker createMarker(int idx, SearchPattern.Finder finder, TextRange range) {
+        int start = range.start + finder.start();
+        int end = range.start + finder.end();
+        ReplaceMarker marker = new ReplaceMarker(idx, start, end - start, 
+                                       isExcluded(profile.getExclusions(), start, end, range));
+        if (profile.isRegex())
+            marker.setReplacement(finder.replacement(replaceWith));
+        return marker;
     }
     
-    private boolean isExcluded(Exclusions exclusions, int s, int e, String line) {
+    /* prefixes and suffixes do not cross the range */
+    private boolean isExcluded(Exclusions exclusions, int s, int e, TextRange range) {
         int start = s - exclusions.maxPrefixSize();
-        start = start < 0 ? 0 : start;
-        if (exclusions.containsAnyPrefixes(line.substring(start, s), true))
+        start = start < range.start ? range.start : start;
+        if (exclusions.containsAnyPrefixes(range.text.substring(start, s), true))
             return true;
         int end = e + exclusions.maxSuffixSize();
-        end = end > line.length() ? line.length() : end;
-        if (exclusions.containsAnySuffixes(line.substring(e, end)))
+        end = end > range.end ? range.end : end;
+        if (exclusions.containsAnySuffixes(range.text.substring(e, end)))
             return true;
         return false;
     }
@@ -363,27 +600,55 @@ public class FileReplacerImpl implements FileReplacer {
     }
 
     private void checkMarkers() {
+        TextRange name = new TextRange(fileName);
         filenameMarkers.forEach(marker -> {
-            checkMarker(marker, fileName);
+            checkMarker(marker, name);
         });
+        TextRange range = new TextRange(text);
         contentMarkers.forEach(marker -> {
-            checkMarker(marker, content.get(marker.getLineNumber()));
+            if (!profile.isMultiline()) {
+                int lineStart = lineStartOf(marker.getStartIndex());
+                range.set(lineStart, lineEnd(text, lineStart));
+            }
+            checkMarker(marker, range);
         });
         state = AFTER_FOUND;
     }
 
-    private void checkMarker(ReplaceMarker marker, String line) {
+    private void checkMarker(ReplaceMarker marker, TextRange range) {
         int start = marker.getStartIndex();
-        int end = start + profile.getToFind().length();
-        marker.setExcluded(isExcluded(profile.getExclusions(), start, end, line));
+        int end = start + marker.getLength();
+        marker.setExcluded(isExcluded(profile.getExclusions(), start, end, range));
+    }
+
+    /* start of the line containing given index of the text */
+    private int lineStartOf(int index) {
+        if (lineStarts == null) {
+            int[] starts = new int[16];
+            int lines = 0;
+            for (int start = 0; start < text.length(); start = nextLine(text, lineEnd(text, start))) {
+                if (lines == starts.length) starts = Arrays.copyOf(starts, lines * 2);
+                starts[lines++] = start;
+            }
+            lineStarts = Arrays.copyOf(starts, lines);
+        }
+        int line = Arrays.binarySearch(lineStarts, index);
+        return line >= 0 ? lineStarts[line] : 
+               line == -1 ? 0 : lineStarts[-line - 2];
     }
 
     private void checkProfile(SearchProfile profile) {
         if (this.profile != null) {
-            if (!this.profile.getCharset().equals(profile.getCharset())) 
+            if (!this.profile.getCharset().equals(profile.getCharset()) ||
+                this.profile.isMultiline() != profile.isMultiline() ||
+                this.profile.isContent() != profile.isContent()) 
                 resetToBeforeFind();
-            else if (!this.profile.getToFind().equals(profile.getToFind())) 
-                resetToFindOther();
+            else if (!this.profile.getSearchPattern().equals(profile.getSearchPattern()) ||
+                     isReplacementChanged(profile)) {
+                /* content that was not decoded may contain other pattern */
+                if (undecoded) resetToBeforeFind();
+                else           resetToFindOther();
+            }
             else if (!this.profile.getExclusions().equals(profile.getExclusions())) 
                 resetToExcludeOther();
             else if (!this.profile.getReplaceWith().equals(profile.getReplaceWith()))
@@ -394,6 +659,12 @@ public class FileReplacerImpl implements FileReplacer {
         }
     }
 
+    /* replacements of regular expressions are computed along with markers */
+    private boolean isReplacementChanged(SearchProfile profile) {
+        return profile.isRegex() && 
+               !this.profile.getReplaceWith().equals(profile.getReplaceWith());
+    }
+
     private void checkFileName(SearchProfile profile) {
         if (result != null && state.getAdvance() < REPLACED.getAdvance()) {
             // cancel previous modification count
@@ -432,7 +703,9 @@ public class FileReplacerImpl implements FileReplacer {
 
     private void resetToBeforeFind() {
         state = BEFORE_FIND;
-        content = new ArrayList<>();
+        text = "";
+        lineStarts = null;
+        undecoded = false;
         resetReplacements();
     }
 
@@ -458,8 +731,8 @@ public class FileReplacerImpl implements FileReplacer {
     }
 
     private void resetReplacements() {
-        filenameMarkers = new ArrayList<>();
-        contentMarkers = new ArrayList<>();
+        filenameMarkers = reuse(filenameMarkers);
+        contentMarkers = reuse(contentMarkers);
         replacements = false;
         removeResult();
     }
@@ -469,4 +742,83 @@ public class FileReplacerImpl implements FileReplacer {
         modifications = 0;
     }
 
+    /* lists are not shared with results, so they may be cleared */
+    private static <T> List<T> reuse(List<T> list) {
+        if (list == null || list.size() > REUSED_LIST_SIZE) 
+            return new ArrayList<>();
+        list.clear();
+        return list;
+    }
+
+    /*
+     * A part of the text (usually a line) searched without being
+     * copied. The whole text is given to finders as it is, and parts
+     * of it are searched with String's own search of the whole text
+     * (see indexOf), so literal search is intrinsic in both cases
+     */
+    private static final class TextRange implements SearchableText {
+
+        private final String text;
+        private int start;
+        private int end;
+        /* the last search in the whole text, there is no word between its start and result */
+        private String searched;
+        private int searchedFrom;
+        private int found;
+
+        TextRange(String text) {
+            this.text = text;
+            end = text.length();
+        }
+
+        TextRange set(int start, int end) {
+            this.start = start;
+            this.end = end;
+            return this;
+        }
+
+        CharSequence input() {
+            return start == 0 && end == text.length() ? text : this;
+        }
+
+        /*
+         * Search does not stop at the end of the range, so its result
+         * is kept for the following ranges (lines are searched in order),
+         * and the text is searched again only after the found word
+         */
+        @Override
+        public int indexOf(String word, int from) {
+            int at = start + Math.max(from, 0);
+            if (!word.equals(searched) || at < searchedFrom || (found >= 0 && at > found)) {
+                searched = word;
+                searchedFrom = at;
+                found = text.indexOf(word, at);
+            }
+            return found < 0 || found + word.length() > end ? -1 : found - start;
+        }
+
+        @Override
+        public int length() {
+            return end - start;
+        }
+
+        @Override
+        public char charAt(int index) {
+            if (index < 0 || index >= end - start)
+                throw new IndexOutOfBoundsException("index " + index);
+            return text.charAt(start + index);
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            if (start < 0 || start > end || end > this.end - this.start)
+                throw new IndexOutOfBoundsException("range " + start + ", " + end);
+            return text.subSequence(this.start + start, this.start + end);
+        }
+
+        @Override
+        public String toString() {
+            return text.substring(start, end);
+        }
+    }
 }
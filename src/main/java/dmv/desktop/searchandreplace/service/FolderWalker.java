@@ -11,16 +11,26 @@ import static dmv.desktop.searchandreplace.service.SearchAndReplace.State.REPLAC
 import static java.util.stream.Collectors.toList;
 
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
+import java.nio.ByteBuffer;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Objects;
 import java.util.Queue;
 import java.util.concurrent.*;
 import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
+import dmv.desktop.searchandreplace.collection.Tuple;
+import dmv.desktop.searchandreplace.collection.TupleImpl;
 import dmv.desktop.searchandreplace.exception.AccessResourceException;
 import dmv.desktop.searchandreplace.exception.NothingToReplaceException;
 import dmv.desktop.searchandreplace.model.*;
@@ -35,19 +45,83 @@ import dmv.desktop.searchandreplace.model.*;
  * then modified content will be written back into files. State will become 'REPLACED'.
  * Any parameter may be overridden at any stage, some changes may lead to change in 
  * object's state which may lead to re-computation or re-reading file's content.
+ * <p>
+ * Binary files are recognized by their first bytes and skipped, the number
+ * of skipped files and bytes that were not read is available through
+ * {@link #getStatistics()} after files were read. Folders excluded in
+ * {@link SearchPath} (or ignored by '.gitignore' files if that is enabled)
+ * are not traversed at all. Files are read in different ways depending
+ * on their size, see {@link #setReadLimits(long, long)}, content of
+ * very big files is scanned by several threads in parallel, see
+ * {@link #setScanLimits(int, int)}. Order of files processing may be
+ * changed with {@link #setSchedulingPolicy(SchedulingPolicy)} (files may be read
+ * in order of their keys within a window, see {@link #setScheduleWindow(int)}),
+ * and small files may be processed in batches, see {@link #setBatchLimits(long, int, long)}.
+ * Number of reads in flight may be tuned at runtime with
+ * {@link #setReadLimiter(ReadLimiter)}, and I/O rate may be limited
+ * with {@link #setThrottle(IoThrottle)}. Files without replacements
+ * are read by replacers reused by following reading tasks, so they cost
+ * almost no allocations and they are never written. Files may be read
+ * asynchronously, without blocking executor threads, see 
+ * {@link #setAsyncReads(int)}. If only file names are replaced (see
+ * {@link SearchProfile#setContent(boolean)}), files are not opened,
+ * and those with names not containing 'what to find' are not even
+ * submitted for processing. Subfolders may be renamed as well (see
+ * {@link SearchProfile#setFolderName(boolean)}) if file names are,
+ * that is done after all files were processed, the deepest folders
+ * first, so paths found during the same traversal stay valid until
+ * they are renamed. Without subfolders only folders right inside
+ * the root folder may be renamed, they are not entered.
+ * Files and folders are renamed at the very end, all new names are chosen
+ * before the first rename, see {@link RenamePlanner}.
  * 
  * @author dmv
  * @since 2017 January 02
  */
 public class FolderWalker
         implements SearchAndReplace<SearchPath, SearchProfile, SearchResult> {
+    /** Default maximum number of small files in one batch */
+    public static final int DEFAULT_BATCH_FILES = 64;
+    /** Default maximum of cumulative size of files in one batch */
+    public static final long DEFAULT_BATCH_BYTES = 256 << 10;
+    /** Default number of files sorted together by file keys */
+    public static final int DEFAULT_SCHEDULE_WINDOW = 1024;
     /* Explicitly set the default pool of CompletableFuture */
     private static final ForkJoinPool COMMON_POOL = ForkJoinPool.commonPool();
+    /* Files with unknown attributes are considered empty */
+    private static final Comparator<FileReplacer> BY_SIZE_DESCENDING = 
+            Comparator.comparingLong((FileReplacer replacer) -> 
+                            replacer.getAttributes() != null ? replacer.getAttributes().size() : 0)
+                      .reversed();
+    /* Skipped along with ignored files */
+    private static final String GIT_FOLDER = ".git";
     
     private SearchPath folder;
     private SearchProfile profile;
     private Queue<FileReplacer> foundFiles;
+    /* subfolders with 'what to find' in their names, deepest first */
+    private List<Path> foundFolders;
+    /* Replacers reused for files with nothing to report, borrowed by reading tasks */
+    private final Queue<FileReplacer> spareReplacers = new ConcurrentLinkedQueue<>();
     private State state;
+    private final SearchStatistics statistics = new SearchStatistics();
+    private ContentReader reader = new ContentReader(statistics);
+    private int scanThreshold = ParallelScanner.DEFAULT_THRESHOLD;
+    private int scanRegionSize = ParallelScanner.DEFAULT_REGION_SIZE;
+    /* Scanner of current operation's executor */
+    private ParallelScanner scanner;
+    /* renamer of files and folders of the same pass */
+    private RenamePlanner planner;
+    /* Files smaller than that are read in batches (none by default) */
+    private long batchFileSize = 0;
+    private int batchFiles = DEFAULT_BATCH_FILES;
+    private long batchBytes = DEFAULT_BATCH_BYTES;
+    private ReadLimiter limiter;
+    private IoThrottle throttle;
+    private SchedulingPolicy policy = SchedulingPolicy.WALK_ORDER;
+    private int scheduleWindow = DEFAULT_SCHEDULE_WINDOW;
+    /* Files (or batches) read asynchronously at once (blocking reads by default) */
+    private int asyncReads = 0;
     
     /**
      * Constructs a Walker with required parameters.
@@ -92,6 +166,178 @@ public class FolderWalker
         this.profile = profile;
     }
 
+    /**
+     * Get counters of the last files reading operation,
+     * they are reset each time files are read anew.
+     * @return statistics of the last reading operation
+     */
+    public SearchStatistics getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * Set file size limits by which the way of reading
+     * files content is chosen (see {@link ReadStrategy}).
+     * Limits are applied to files read after this call and 
+     * are reported in {@link #getStatistics() statistics}.
+     * @param tinyLimit size in bytes up to which (inclusive) 
+     *                  files are read at once
+     * @param largeLimit size in bytes from which files are
+     *                   read in chunks
+     * @throws IllegalArgumentException if tinyLimit is negative
+     *                                  or largeLimit is less than it
+     */
+    public void setReadLimits(long tinyLimit, long largeLimit) {
+        reader = new ContentReader(statistics, tinyLimit, largeLimit);
+    }
+
+    /**
+     * Set limits for scanning content of very big files in parallel
+     * with the same executor files are processed with. Limits are 
+     * applied to operations started after this call.
+     * @param threshold content length (in chars) from which 
+     *                  it is split into regions
+     * @param regionSize length of one region
+     * @throws IllegalArgumentException if either of numbers 
+     *                                  is not positive
+     */
+    public void setScanLimits(int threshold, int regionSize) {
+        if (threshold <= 0 || regionSize <= 0)
+            throw new IllegalArgumentException(
+                    "Threshold and region size must be positive");
+        scanThreshold = threshold;
+        scanRegionSize = regionSize;
+    }
+
+    /**
+     * Set limits for processing small files in batches. Each batch
+     * is processed by a single task (so by a single thread reusing 
+     * its buffers), it is closed when either it has given number 
+     * of files or their cumulative size reaches given limit. 
+     * Limits are applied to operations started after this call.
+     * @param smallFileSize files smaller than that are batched,
+     *                      0 turns batching off
+     * @param maxFiles maximum number of files in one batch
+     * @param maxBytes maximum of cumulative size of files in one batch
+     * @throws IllegalArgumentException if smallFileSize is negative
+     *                                  or either of limits is not positive
+     */
+    public void setBatchLimits(long smallFileSize, int maxFiles, long maxBytes) {
+        if (smallFileSize < 0 || maxFiles <= 0 || maxBytes <= 0)
+            throw new IllegalArgumentException(
+                    "Batch limits must be positive (file size may be 0)");
+        batchFileSize = smallFileSize;
+        batchFiles = maxFiles;
+        batchBytes = maxBytes;
+    }
+
+    /**
+     * @return limiter of reads in flight or null if there is none
+     */
+    public ReadLimiter getReadLimiter() {
+        return limiter;
+    }
+
+    /**
+     * Set limiter of reads in flight, files are read as soon as it
+     * allows, the rest of processing is not limited. Limiter adapts
+     * to storage at runtime, so the same object should be used for 
+     * operations on the same storage.
+     * @param limiter limiter of reads or null if the number of reads
+     *                is limited by executor only
+     */
+    public void setReadLimiter(ReadLimiter limiter) {
+        this.limiter = limiter;
+    }
+
+    /**
+     * @return limiter of I/O rate or null if there is none
+     */
+    public IoThrottle getThrottle() {
+        return throttle;
+    }
+
+    /**
+     * Set limiter of I/O rate, it is applied to reading and
+     * writing of files by operations started after this call.
+     * Rates of given throttle may be changed while an operation
+     * is in progress.
+     * @param throttle limiter of bytes and files per second or 
+     *                 null if I/O rate is not limited
+     */
+    public void setThrottle(IoThrottle throttle) {
+        this.throttle = throttle;
+    }
+
+    /**
+     * @return order in which files are submitted for processing
+     */
+    public SchedulingPolicy getSchedulingPolicy() {
+        return policy;
+    }
+
+    /**
+     * Set order in which files are submitted for processing,
+     * it does not change current state and it is applied to
+     * operations started after this call
+     * @param policy scheduling policy
+     * @throws NullPointerException if argument is null
+     */
+    public void setSchedulingPolicy(SchedulingPolicy policy) {
+        Objects.requireNonNull(policy);
+        this.policy = policy;
+    }
+
+    /**
+     * @return number of files sorted together in 
+     *         {@link SchedulingPolicy#FILE_KEY_ORDER FILE_KEY_ORDER}
+     */
+    public int getScheduleWindow() {
+        return scheduleWindow;
+    }
+
+    /**
+     * Set number of files (or batches of small files) which are
+     * collected during traversal and then submitted sorted by their 
+     * file keys in {@link SchedulingPolicy#FILE_KEY_ORDER FILE_KEY_ORDER}.
+     * Bigger window gives more sequential reads, while reading
+     * starts later.
+     * @param files number of files in a window
+     * @throws IllegalArgumentException if argument is not positive
+     */
+    public void setScheduleWindow(int files) {
+        if (files <= 0)
+            throw new IllegalArgumentException("Window must have at least one file");
+        scheduleWindow = files;
+    }
+
+    /**
+     * @return number of files (or batches) read asynchronously 
+     *         at once, or 0 if files are read by executor threads
+     */
+    public int getAsyncReads() {
+        return asyncReads;
+    }
+
+    /**
+     * Set number of files (or batches of small files) which are 
+     * read asynchronously at once and then processed by executor,
+     * so executor threads are not blocked by reads and a few of 
+     * them may keep many reads in flight on high-latency storage.
+     * Files read in chunks (see {@link #setReadLimits(long, long)})
+     * are still read by executor threads, and {@link ReadLimiter}
+     * is not used for asynchronous reads. It is applied to 
+     * operations started after this call.
+     * @param inFlight number of files (or batches) being read or
+     *                 waiting for processing, 0 turns it off
+     * @throws IllegalArgumentException if argument is negative
+     */
+    public void setAsyncReads(int inFlight) {
+        if (inFlight < 0)
+            throw new IllegalArgumentException("Number of reads must not be negative");
+        asyncReads = inFlight;
+    }
+
     @Override
     public List<SearchResult> preview() {
         return preview(COMMON_POOL);
@@ -117,28 +363,55 @@ public class FolderWalker
     private List<SearchResult> walk(Executor exec, boolean replace) {
         checkInitialRequirements();
         checkState();
+        scanner = new ParallelScanner(exec, scanThreshold, scanRegionSize);
+        planner = new RenamePlanner();
         try (Stream<SearchResult> results = getFutures(exec, replace)
                                               .stream()
                                               .map(this::completeFuture)
+                                              .flatMap(List::stream)
                                               .filter(this::hasInformation)) {
-            return changeStateAndReturn(results.collect(toList()), replace);
+            /* folders are renamed only after all files in them are done */
+            List<SearchResult> list = results.collect(toList());
+            if (profile.isFolderName() && profile.isFileName()) 
+                list.addAll(getFolderResults(replace));
+            /* files go before folders, which are listed deepest first */
+            if (replace) list = planner.rename(list);
+            return changeStateAndReturn(list, replace);
         } catch (IOException e) {
             state = INTERRUPTED;
             throw new AccessResourceException(e);
-        } 
+        } finally {
+            /* spares hold content of the last file they read */
+            spareReplacers.clear();
+        }
     }
 
-    private SearchResult completeFuture(CompletableFuture<SearchResult> future) {
+    /* folders are never read, they may only be renamed */
+    private List<SearchResult> getFolderResults(boolean replace) {
+        SearchProfile namesOnly = profile.setContent(false);
+        return foundFolders.stream()
+                           .map(dir -> updateSettings(new FileReplacerImpl(dir, null, 
+                                                                           namesOnly, reader)))
+                           .map(replacer -> getResult(replacer, replace))
+                           .filter(this::hasInformation)
+                           .collect(toList());
+    }
+
+    private List<SearchResult> completeFuture(CompletableFuture<List<SearchResult>> future) {
         try {
             return future.get();
         } catch (InterruptedException | ExecutionException e) {
-            return SearchResultImpl.getBuilder()
-                                    .setExceptional(true)
-                                    .setCause(e)
-                                    .build();
+            return Collections.singletonList(exceptionalResult(e));
         }
     }
 
+    private SearchResult exceptionalResult(Exception e) {
+        return SearchResultImpl.getBuilder()
+                               .setExceptional(true)
+                               .setCause(e)
+                               .build();
+    }
+
     private boolean hasInformation(SearchResult result) {
         return result.isExceptional() || result.numberOfModificationsMade() > 0;
     }
@@ -152,9 +425,10 @@ public class FolderWalker
         return list;
     }
     
-    private List<CompletableFuture<SearchResult>> 
+    /* each future holds either a single file or a batch of small files */
+    private List<CompletableFuture<List<SearchResult>>> 
                        getFutures(Executor exec, boolean replace) throws IOException {
-        Stream<CompletableFuture<FileReplacer>> futures = null;
+        Stream<CompletableFuture<List<FileReplacer>>> futures = null;
         
         if (state.equals(BEFORE_FIND)) futures = readFiles(exec);
         else                           futures = readCache(exec);
@@ -163,65 +437,320 @@ public class FolderWalker
                       .collect(Collectors.toList());
     }
 
-    private Stream<CompletableFuture<FileReplacer>> 
+    /* files are being read while traversal goes on */
+    private Stream<CompletableFuture<List<FileReplacer>>> 
                       readFiles(Executor exec) throws IOException {
         foundFiles = new ConcurrentLinkedQueue<>();
-        return Files.walk(folder.getPath(), 
-                          folder.isSubfolders() ? Integer.MAX_VALUE : 1)
-                    .filter(this::isPathValid)
-                    .map(this::createReplacer)
-                    .map(createReplacerFuture(exec))
-                    .map(future -> future.thenApplyAsync(this::readFileContent, exec));
+        foundFolders = new ArrayList<>();
+        statistics.reset();
+        FolderVisitor visitor = new FolderVisitor(exec);
+        Files.walkFileTree(folder.getPath(), 
+                           EnumSet.noneOf(FileVisitOption.class),
+                           folder.isSubfolders() ? Integer.MAX_VALUE : 1,
+                           visitor);
+        return visitor.getFutures().stream();
     }
     
-    private CompletableFuture<SearchResult> getResult(CompletableFuture<FileReplacer> future, 
-                                                      Executor exec, boolean replace) {
-        return future.thenApplyAsync(
-                replacer -> replace ? replacer.writeResult() : replacer.getResult(), exec);
+    private CompletableFuture<List<SearchResult>> getResult(
+                                        CompletableFuture<List<FileReplacer>> future, 
+                                        Executor exec, boolean replace) {
+        return future.thenApplyAsync(replacers -> replacers.stream()
+                                                           .map(replacer -> getResult(replacer, replace))
+                                                           .collect(toList()), exec);
+    }
+
+    /* failure of one file must not affect other files of a batch */
+    private SearchResult getResult(FileReplacer replacer, boolean replace) {
+        try {
+            return replace ? replacer.writeResult() : replacer.getResult();
+        } catch (RuntimeException e) {
+            return exceptionalResult(e);
+        }
     }
 
-    private Stream<CompletableFuture<FileReplacer>> readCache(Executor exec) {
-        Stream<CompletableFuture<FileReplacer>> futures;
-        futures = foundFiles.stream() 
-                            .map(createReplacerFuture(exec));
+    private Stream<CompletableFuture<List<FileReplacer>>> readCache(Executor exec) {
+        Stream<CompletableFuture<List<FileReplacer>>> futures;
+        Stream<FileReplacer> replacers = foundFiles.stream();
+        if (policy == SchedulingPolicy.LARGEST_FIRST)
+            replacers = replacers.sorted(BY_SIZE_DESCENDING);
+        else if (policy == SchedulingPolicy.FILE_KEY_ORDER)
+            replacers = replacers.sorted(Comparator.comparing(FileReplacer::getAttributes, 
+                                                              FileKeyOrder.INSTANCE));
+        futures = replacers.map(this::updateSettings)
+                           .map(Collections::singletonList)
+                           .map(createReplacerFuture(exec));
         if (state.equals(AFTER_FOUND))
             futures = futures.map(future -> future.thenApplyAsync(this::updateProfile, exec));
         return futures;
     }
 
-    private Function<? super FileReplacer, 
-                     ? extends CompletableFuture<FileReplacer>>
+    private Function<? super List<FileReplacer>, 
+                     ? extends CompletableFuture<List<FileReplacer>>>
                                                          createReplacerFuture(Executor exec) {
-        return replacer -> CompletableFuture.supplyAsync(() -> replacer, exec);
+        return replacers -> CompletableFuture.supplyAsync(() -> replacers, exec);
     }
 
-    private FileReplacer updateProfile(FileReplacer replacer) {
-        replacer.setProfile(profile);
+    /* cached replacers could be created with another executor or throttle */
+    private FileReplacer updateSettings(FileReplacer replacer) {
+        replacer.setScanner(scanner);
+        replacer.setThrottle(throttle);
+        replacer.setRenamePlanner(planner);
         return replacer;
     }
+
+    private List<FileReplacer> updateProfile(List<FileReplacer> replacers) {
+        replacers.forEach(replacer -> replacer.setProfile(profile));
+        return replacers;
+    }
     
-    private FileReplacer readFileContent(FileReplacer replacer) {
-        // cache only objects with possible replacements
-        if (replacer.hasReplacements()) 
-            foundFiles.add(replacer);
-        return replacer;
+    /*
+     * Files are read by a spare replacer borrowed by the task, which is
+     * given away (and a new one is created later) only if a file has 
+     * possible replacements or failed to be read, other files are
+     * left without results as they have nothing to report. The spare
+     * is returned when the task is over, so it is never shared
+     */
+    private List<FileReplacer> readFileContent(List<Tuple<Path, BasicFileAttributes>> files) {
+        return readFileContent(files, null);
+    }
+    
+    /* files are given along with their bytes if they were read asynchronously */
+    private List<FileReplacer> readFileContent(List<Tuple<Path, BasicFileAttributes>> files,
+                                               List<ByteBuffer> contents) {
+        List<FileReplacer> replacers = Collections.emptyList();
+        FileReplacer spare = spareReplacers.poll();
+        for (int i = 0; i < files.size(); i++) {
+            Path file = files.get(i).getFirst();
+            BasicFileAttributes attrs = files.get(i).getLast();
+            FileReplacer replacer = spare;
+            if (replacer == null) replacer = createReplacer(file, attrs);
+            if (contents != null) replacer.setFile(file, attrs, contents.get(i));
+            else                  replacer.setFile(file, attrs);
+            boolean found = replacer.hasReplacements();
+            if (!found && replacer.getState() != INTERRUPTED) {
+                spare = replacer;
+                continue;
+            }
+            // cache only objects with possible replacements
+            if (found) foundFiles.add(replacer);
+            if (replacers.isEmpty()) replacers = new ArrayList<>();
+            replacers.add(replacer);
+            spare = null;
+        }
+        if (spare != null) spareReplacers.add(spare);
+        return replacers;
     }
     
-    private boolean isPathValid(Path file) {
-        return !Files.isDirectory(file) &&
-                folder.getNamePattern().matches(file);
+    /* attributes of symbolic links are those of their targets */
+    private boolean isPathValid(Path file, BasicFileAttributes attrs) {
+        return !attrs.isDirectory() &&
+               folder.getNamePattern().matches(file);
     }
     
-    private FileReplacer createReplacer(Path file) {
-        return new FileReplacerImpl(file, profile);
+    /*
+     * Walk does not follow symbolic links, but the file is read
+     * through the link, so its size (which chooses the way of reading
+     * and writing, and the order of files) is that of the target.
+     * Broken link is left as it is, reading it fails the usual way
+     */
+    private static BasicFileAttributes followLink(Path file, BasicFileAttributes attrs) {
+        if (!attrs.isSymbolicLink()) return attrs;
+        try {
+            return Files.readAttributes(file, BasicFileAttributes.class);
+        } catch (IOException e) {
+            return attrs;
+        }
+    }
+    
+    /* attributes are passed, so the file won't be stat'ed again */
+    private FileReplacer createReplacer(Path file, BasicFileAttributes attrs) {
+        return updateSettings(new FileReplacerImpl(file, attrs, profile, reader));
+    }
+    
+    /*
+     * Collects futures of files reading, excluded (or ignored)
+     * folders are skipped with all their subfolders
+     */
+    private class FolderVisitor extends SimpleFileVisitor<Path> {
+        
+        private final Executor exec;
+        /* reader of files' bytes or null if files are read by executor */
+        private final AsyncReader asyncReader;
+        /* finder of file names if only names are replaced, otherwise null */
+        private final SearchPattern.Finder nameFinder;
+        /* finder of folder names, they are collected whether renamed or not */
+        private final SearchPattern.Finder folderFinder;
+        private final List<CompletableFuture<List<FileReplacer>>> futures;
+        /* files (or batches) waiting for traversal to be over */
+        private final List<List<Tuple<Path, BasicFileAttributes>>> pending;
+        /* rules of ignore files of folders being visited */
+        private final Deque<IgnoreRules> ignoreRules;
+        /* small files batch being filled and its place in futures */
+        private List<Tuple<Path, BasicFileAttributes>> batch;
+        private long batchSize;
+        private int batchIdx;
+        /* places of files (or batches) waiting to be sorted by file keys */
+        private final List<Integer> window;
+        
+        FolderVisitor(Executor exec) {
+            this.exec = exec;
+            asyncReader = asyncReads > 0 && profile.isContent() ? 
+                    new AsyncReader(asyncReads, reader.getLargeLimit(), throttle) : null;
+            nameFinder = profile.isContent() ? null : profile.getSearchPattern().finder();
+            folderFinder = profile.getSearchPattern().finder();
+            futures = new ArrayList<>();
+            pending = new ArrayList<>();
+            ignoreRules = new ArrayDeque<>();
+            batch = new ArrayList<>();
+            window = new ArrayList<>();
+        }
+
+        @Override
+        public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+            if (isSkipped(dir)) 
+                return FileVisitResult.SKIP_SUBTREE;
+            if (folder.isGitignore()) 
+                ignoreRules.push(IgnoreRules.read(ignoreRules.peek(), dir));
+            return FileVisitResult.CONTINUE;
+        }
+
+        @Override
+        public FileVisitResult postVisitDirectory(Path dir, IOException exc) throws IOException {
+            if (folder.isGitignore()) ignoreRules.pop();
+            /* post-visit order puts subfolders before their parent */
+            if (!dir.equals(folder.getPath())) collectFolder(dir);
+            return super.postVisitDirectory(dir, exc);
+        }
+
+        @Override
+        public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+            /* folders at the depth limit are not entered, but may be renamed */
+            if (attrs.isDirectory()) {
+                if (!isSkipped(file)) collectFolder(file);
+                return FileVisitResult.CONTINUE;
+            }
+            attrs = followLink(file, attrs);
+            if (isPathValid(file, attrs) && !isIgnored(file) && isNameMatched(file)) {
+                Tuple<Path, BasicFileAttributes> found = new TupleImpl<>(file, attrs);
+                if (attrs.size() < batchFileSize) addToBatch(found, attrs.size());
+                else                              place(reserve(), Collections.singletonList(found));
+            }
+            return FileVisitResult.CONTINUE;
+        }
+        
+        /* excluded, ignored and '.git' folders are skipped with their subtrees */
+        private boolean isSkipped(Path dir) {
+            if (folder.isExcludedFolder(dir)) return true;
+            IgnoreRules rules = ignoreRules.peek();
+            return folder.isGitignore() && rules != null &&
+                   (GIT_FOLDER.equals(dir.getFileName().toString()) || 
+                    rules.isIgnored(dir, true));
+        }
+
+        private void collectFolder(Path dir) {
+            if (folderFinder.reset(dir.getFileName().toString()).find())
+                foundFolders.add(dir);
+        }
+
+        /* batch takes place of its first file */
+        private void addToBatch(Tuple<Path, BasicFileAttributes> file, long size) {
+            if (batch.isEmpty()) batchIdx = reserve();
+            batch.add(file);
+            batchSize += size;
+            if (batch.size() >= batchFiles || batchSize >= batchBytes)
+                flushBatch();
+        }
+        
+        private void flushBatch() {
+            if (batch.isEmpty()) return;
+            place(batchIdx, batch);
+            batch = new ArrayList<>();
+            batchSize = 0;
+        }
+        
+        /* each file (or batch) has its place in walk order */
+        private int reserve() {
+            if (policy != SchedulingPolicy.LARGEST_FIRST) futures.add(null);
+            if (policy != SchedulingPolicy.WALK_ORDER)    pending.add(null);
+            return Math.max(futures.size(), pending.size()) - 1;
+        }
+        
+        private void place(int idx, List<Tuple<Path, BasicFileAttributes>> files) {
+            if (policy == SchedulingPolicy.WALK_ORDER) {
+                futures.set(idx, submit(files));
+            } else {
+                pending.set(idx, files);
+                if (policy == SchedulingPolicy.FILE_KEY_ORDER) {
+                    window.add(idx);
+                    if (window.size() >= scheduleWindow) flushWindow();
+                }
+            }
+        }
+        
+        /* batch is sorted by its first file */
+        private void flushWindow() {
+            window.sort(Comparator.comparing((Integer idx) -> pending.get(idx).get(0).getLast(),
+                                             FileKeyOrder.INSTANCE));
+            for (int idx : window) {
+                futures.set(idx, submit(pending.get(idx)));
+                pending.set(idx, null);
+            }
+            window.clear();
+        }
+        
+        /* futures are listed in walk order, whatever the order of submission was */
+        List<CompletableFuture<List<FileReplacer>>> getFutures() {
+            flushBatch();
+            flushWindow();
+            if (policy != SchedulingPolicy.LARGEST_FIRST) return futures;
+            List<CompletableFuture<List<FileReplacer>>> scheduled = 
+                    new ArrayList<>(Collections.nCopies(pending.size(), null));
+            IntStream.range(0, pending.size())
+                     .boxed()
+                     .sorted(Comparator.comparingLong((Integer idx) -> size(pending.get(idx)))
+                                       .reversed())
+                     .forEachOrdered(idx -> scheduled.set(idx, submit(pending.get(idx))));
+            return scheduled;
+        }
+        
+        private long size(List<Tuple<Path, BasicFileAttributes>> files) {
+            long size = 0;
+            for (Tuple<Path, BasicFileAttributes> file : files) 
+                size += file.getLast().size();
+            return size;
+        }
+        
+        private CompletableFuture<List<FileReplacer>> submit(
+                                        List<Tuple<Path, BasicFileAttributes>> files) {
+            if (asyncReader != null)
+                return asyncReader.read(files, contents -> readFileContent(files, contents), exec);
+            /* files are not read if only names are replaced */
+            if (limiter != null && profile.isContent())
+                return limiter.submit(() -> readFileContent(files), size(files), exec);
+            return CompletableFuture.supplyAsync(() -> readFileContent(files), exec);
+        }
+        
+        /* exclusions are checked later, a file may still be left as it is */
+        private boolean isNameMatched(Path file) {
+            return nameFinder == null ||
+                   profile.isFileName() && 
+                   nameFinder.reset(file.getFileName().toString()).find();
+        }
+        
+        private boolean isIgnored(Path file) {
+            return folder.isGitignore() && !ignoreRules.isEmpty() &&
+                   ignoreRules.peek().isIgnored(file, false);
+        }
     }
     
     private void checkProfile(SearchProfile profile) {
         Objects.requireNonNull(profile);
         // check for null at initialization time
         if (this.profile != null && !this.profile.equals(profile)) {
-            if (!this.profile.getToFind().equals(profile.getToFind()) ||
-                !this.profile.getCharset().equals(profile.getCharset()))
+            if (!this.profile.getSearchPattern().equals(profile.getSearchPattern()) ||
+                !this.profile.getCharset().equals(profile.getCharset()) ||
+                this.profile.isMultiline() != profile.isMultiline() ||
+                this.profile.isContent() != profile.isContent())
                 state = BEFORE_FIND;
             else if (state.getAdvance() > AFTER_FOUND.getAdvance() &&
                      state.getAdvance() < INTERRUPTED.getAdvance())
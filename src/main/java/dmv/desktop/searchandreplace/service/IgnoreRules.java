@@ -0,0 +1,149 @@
+/**
+ *
+ */
+package dmv.desktop.searchandreplace.service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Class <tt>IgnoreRules.java</tt> holds compiled rules of ignore
+ * files ('.gitignore' and '.ignore') of one directory, linked to
+ * the rules of its parent directory, so rules are read and compiled
+ * once per directory and inherited down the tree.
+ * <p>
+ * Rules follow gitignore syntax: comments, negation with '!',
+ * directory only rules with trailing '/', rules anchored to their
+ * directory if they contain '/', '*', '?', '[...]' and '**' wildcards.
+ * Like in git, the last matching rule wins and rules of deeper
+ * directories take precedence. Files of ignored directories can
+ * not be re-included, because such directories are not visited.
+ * @author dmv
+ * @since 2017 February 11
+ */
+class IgnoreRules {
+
+    /** Names of ignore files, rules of latter ones take precedence */
+    static final String[] IGNORE_FILES = {".gitignore", ".ignore"};
+
+    private final IgnoreRules parent;
+    private final Path dir;
+    private final List<Rule> rules;
+
+    /**
+     * Compile rules of a directory
+     * @param parent rules of parent directory or null
+     * @param dir directory rules belong to
+     * @param lines lines of ignore files
+     */
+    IgnoreRules(IgnoreRules parent, Path dir, List<String> lines) {
+        this.parent = parent;
+        this.dir = dir;
+        rules = new ArrayList<>();
+        for (String line : lines) {
+            Rule rule = Rule.parse(line);
+            if (rule != null) rules.add(rule);
+        }
+    }
+
+    /**
+     * Read ignore files of given directory, if there are none,
+     * parent rules are returned as they are
+     * @param parent rules of parent directory or null
+     *               if given directory is the top one
+     * @param dir directory to read ignore files from
+     * @return rules for given directory, never null
+     */
+    static IgnoreRules read(IgnoreRules parent, Path dir) {
+        List<String> lines = new ArrayList<>();
+        for (String name : IGNORE_FILES) {
+            try {
+                lines.addAll(Files.readAllLines(dir.resolve(name), StandardCharsets.UTF_8));
+            } catch (IOException e) {
+                // there is no such file or it can't be read
+            }
+        }
+        if (lines.isEmpty())
+            return parent != null ? parent :
+                   new IgnoreRules(null, dir, Collections.emptyList());
+        return new IgnoreRules(parent, dir, lines);
+    }
+
+    /**
+     * Check if given path should be ignored
+     * @param path a file or directory inside the tree
+     * @param directory true if path is a directory
+     * @return true if path is ignored
+     */
+    boolean isIgnored(Path path, boolean directory) {
+        for (IgnoreRules current = this; current != null; current = current.parent) {
+            Path relative = current.dir.relativize(path);
+            for (int i = current.rules.size() - 1; i >= 0; i--) {
+                Rule rule = current.rules.get(i);
+                if (rule.matches(relative, directory))
+                    return !rule.negated;
+            }
+        }
+        return false;
+    }
+
+    private static class Rule {
+
+        private final PathMatcher matcher;
+        private final boolean negated;
+        private final boolean directoryOnly;
+        private final boolean anchored;
+
+        private Rule(PathMatcher matcher, boolean negated,
+                     boolean directoryOnly, boolean anchored) {
+            this.matcher = matcher;
+            this.negated = negated;
+            this.directoryOnly = directoryOnly;
+            this.anchored = anchored;
+        }
+
+        boolean matches(Path relative, boolean directory) {
+            if (directoryOnly && !directory) return false;
+            return anchored ? matcher.matches(relative) :
+                              matcher.matches(relative.getFileName());
+        }
+
+        /* null is returned for comments, empty and malformed lines */
+        static Rule parse(String line) {
+            if (line.isEmpty() || line.charAt(0) == '#') return null;
+            int end = line.length();
+            while (end > 0 && line.charAt(end - 1) == ' ' &&
+                   (end < 2 || line.charAt(end - 2) != '\\')) end--;
+            line = line.substring(0, end);
+            boolean negated = line.startsWith("!");
+            if (negated || line.startsWith("\\!") || line.startsWith("\\#"))
+                line = line.substring(1);
+            boolean directoryOnly = line.endsWith("/");
+            if (directoryOnly) line = line.substring(0, line.length() - 1);
+            boolean anchored = line.indexOf('/') >= 0;
+            if (line.startsWith("/")) line = line.substring(1);
+            if (line.isEmpty()) return null;
+            try {
+                PathMatcher matcher = FileSystems.getDefault()
+                                                 .getPathMatcher("glob:" + toGlob(line));
+                return new Rule(matcher, negated, directoryOnly, anchored);
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+
+        /* '**' may match zero folders in gitignore patterns */
+        private static String toGlob(String pattern) {
+            String glob = pattern.replace("{", "\\{")
+                                 .replace("}", "\\}")
+                                 .replace("/**/", "{/,/**/}");
+            if (glob.startsWith("**/"))
+                glob = "{,**/}" + glob.substring(3);
+            return glob;
+        }
+    }
+}
@@ -0,0 +1,125 @@
+/**
+ *
+ */
+package dmv.desktop.searchandreplace.service;
+
+import java.io.InterruptedIOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Class <tt>IoThrottle.java</tt> limits the rate of file operations
+ * in bytes per second and files per second with two token buckets,
+ * so a big replace may run on a busy host without saturating its disk.
+ * <p>
+ * Each bucket holds up to one second of its rate, so short bursts
+ * are allowed after idle time. An operation waits until the buckets
+ * hold what it needs (or are full, if it needs more than that) and
+ * then takes it, so the buckets may go into debt which is paid by
+ * following operations. Rates may be changed at any time, waiting
+ * operations see new rates at once.
+ * <p>
+ * Object is thread safe and may be shared by any number of
+ * {@link FileReplacer}s, reads and writes are limited together.
+ * @author dmv
+ * @since 2017 February 17
+ */
+public class IoThrottle {
+
+    private static final double NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private long bytesPerSecond;
+    private long filesPerSecond;
+    private double byteTokens;
+    private double fileTokens;
+    private long lastRefill;
+
+    /**
+     * Create throttle with given rates, buckets are full
+     * @param bytesPerSecond rate of bytes or 0 if it is not limited
+     * @param filesPerSecond rate of files or 0 if it is not limited
+     * @throws IllegalArgumentException if either of rates is negative
+     */
+    public IoThrottle(long bytesPerSecond, long filesPerSecond) {
+        lastRefill = System.nanoTime();
+        setRates(bytesPerSecond, filesPerSecond);
+        byteTokens = bytesPerSecond;
+        fileTokens = filesPerSecond;
+    }
+
+    /**
+     * @return rate of bytes or 0 if it is not limited
+     */
+    public synchronized long getBytesPerSecond() {
+        return bytesPerSecond;
+    }
+
+    /**
+     * @return rate of files or 0 if it is not limited
+     */
+    public synchronized long getFilesPerSecond() {
+        return filesPerSecond;
+    }
+
+    /**
+     * Change rates, it affects operations already waiting
+     * @param bytesPerSecond rate of bytes or 0 if it is not limited
+     * @param filesPerSecond rate of files or 0 if it is not limited
+     * @throws IllegalArgumentException if either of rates is negative
+     */
+    public synchronized void setRates(long bytesPerSecond, long filesPerSecond) {
+        if (bytesPerSecond < 0 || filesPerSecond < 0)
+            throw new IllegalArgumentException("Rates must not be negative");
+        refill(System.nanoTime());
+        this.bytesPerSecond = bytesPerSecond;
+        this.filesPerSecond = filesPerSecond;
+        byteTokens = Math.min(byteTokens, bytesPerSecond);
+        fileTokens = Math.min(fileTokens, filesPerSecond);
+        notifyAll();
+    }
+
+    /**
+     * Wait for permission to transfer given amount of data
+     * @param files number of files to be opened (usually 1 for
+     *              the first part of a file and 0 for the rest)
+     * @param bytes number of bytes to be read or written
+     * @throws InterruptedIOException if thread was interrupted
+     *                                while waiting
+     */
+    public synchronized void acquire(int files, long bytes) throws InterruptedIOException {
+        try {
+            while (true) {
+                long now = System.nanoTime();
+                refill(now);
+                long wait = Math.max(delay(fileTokens, files, filesPerSecond),
+                                     delay(byteTokens, bytes, bytesPerSecond));
+                if (wait <= 0) break;
+                TimeUnit.NANOSECONDS.timedWait(this, wait);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for I/O permission");
+        }
+        if (filesPerSecond > 0) fileTokens -= files;
+        if (bytesPerSecond > 0) byteTokens -= bytes;
+    }
+
+    private void refill(long now) {
+        double seconds = (now - lastRefill) / NANOS;
+        lastRefill = now;
+        byteTokens = Math.min(bytesPerSecond, byteTokens + seconds * bytesPerSecond);
+        fileTokens = Math.min(filesPerSecond, fileTokens + seconds * filesPerSecond);
+    }
+
+    /* nanoseconds until bucket holds required amount or is full */
+    private static long delay(double tokens, long amount, long rate) {
+        if (rate == 0 || amount == 0) return 0;
+        double needed = Math.min(amount, rate) - tokens;
+        return needed <= 0 ? 0 : (long) Math.ceil(needed / rate * NANOS);
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("IoThrottle [bytesPerSecond=%s, filesPerSecond=%s]",
+                             bytesPerSecond, filesPerSecond);
+    }
+}
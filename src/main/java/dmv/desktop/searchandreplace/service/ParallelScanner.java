@@ -0,0 +1,144 @@
+/**
+ * 
+ */
+package dmv.desktop.searchandreplace.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.IntFunction;
+
+/**
+ * Class <tt>ParallelScanner.java</tt> splits scanning of very big 
+ * content into regions and scans them with given {@link Executor},
+ * so one huge file is not processed by a single thread while
+ * other threads are idle. Content shorter than the threshold 
+ * is scanned as a single region by the calling thread.
+ * <p>
+ * The calling thread scans regions which were not started by
+ * the executor yet, so it never waits for tasks queued behind
+ * other work (and does not deadlock on a fully loaded pool).
+ * <p>
+ * Object is immutable and may be shared between threads.
+ * @author dmv
+ * @since 2017 February 13
+ */
+public class ParallelScanner {
+
+    /** Default content length (in chars) from which it is split */
+    public static final int DEFAULT_THRESHOLD = 8 << 20;
+    /** Default length of one region (in chars) */
+    public static final int DEFAULT_REGION_SIZE = 1 << 20;
+
+    private final Executor executor;
+    private final int threshold;
+    private final int regionSize;
+
+    /**
+     * Create scanner with default threshold and region size
+     * @param executor executor to scan regions with
+     * @throws NullPointerException if argument is null
+     */
+    public ParallelScanner(Executor executor) {
+        this(executor, DEFAULT_THRESHOLD, DEFAULT_REGION_SIZE);
+    }
+
+    /**
+     * Create scanner with given threshold and region size
+     * @param executor executor to scan regions with
+     * @param threshold content length from which it is split
+     * @param regionSize length of one region
+     * @throws NullPointerException if executor is null
+     * @throws IllegalArgumentException if either of numbers 
+     *                                  is not positive
+     */
+    public ParallelScanner(Executor executor, int threshold, int regionSize) {
+        Objects.requireNonNull(executor);
+        if (threshold <= 0 || regionSize <= 0)
+            throw new IllegalArgumentException(
+                    "Threshold and region size must be positive");
+        this.executor = executor;
+        this.threshold = threshold;
+        this.regionSize = regionSize;
+    }
+
+    /**
+     * @return content length from which it is split
+     */
+    public int getThreshold() {
+        return threshold;
+    }
+
+    /**
+     * @return length of one region
+     */
+    public int getRegionSize() {
+        return regionSize;
+    }
+
+    /**
+     * Find out into how many regions content should be split
+     * @param length content length
+     * @return number of regions, 1 if content is not to be split
+     */
+    public int regions(long length) {
+        if (length < threshold) return 1;
+        return (int) Math.min(Integer.MAX_VALUE, (length + regionSize - 1) / regionSize);
+    }
+
+    /**
+     * Scan regions in parallel, exception thrown by any region's 
+     * task is rethrown as it is (or wrapped into 
+     * {@link CompletionException} if it is a checked one)
+     * @param regions number of regions
+     * @param task scanner of a region by its number
+     * @return results of regions in order of their numbers
+     */
+    public <T> List<T> scan(int regions, IntFunction<T> task) {
+        if (regions <= 1) return Collections.singletonList(task.apply(0));
+        List<FutureTask<T>> tasks = new ArrayList<>(regions);
+        for (int i = 0; i < regions; i++) {
+            int region = i;
+            tasks.add(new FutureTask<>(() -> task.apply(region)));
+        }
+        for (int i = 1; i < regions; i++) {
+            try {
+                executor.execute(tasks.get(i));
+            } catch (RejectedExecutionException e) {
+                // the region will be scanned by calling thread
+            }
+        }
+        /* tasks already started by other threads are not run again */
+        tasks.forEach(FutureTask::run);
+        List<T> results = new ArrayList<>(regions);
+        for (FutureTask<T> region : tasks)
+            results.add(get(region));
+        return results;
+    }
+
+    private static <T> T get(FutureTask<T> task) {
+        try {
+            return task.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            if (cause instanceof Error) throw (Error) cause;
+            throw new CompletionException(cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CompletionException(e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ParallelScanner [threshold=%s, regionSize=%s]",
+                             threshold, regionSize);
+    }
+}
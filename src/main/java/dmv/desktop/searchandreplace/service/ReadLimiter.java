@@ -0,0 +1,193 @@
+/**
+ * 
+ */
+package dmv.desktop.searchandreplace.service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * Class <tt>ReadLimiter.java</tt> limits the number of file reads
+ * being in flight and tunes that limit at runtime with AIMD rule
+ * (additive increase, multiplicative decrease) by observed latency,
+ * so the same settings fit both fast local disks (where the limit
+ * grows) and slow spinning or network ones (where it shrinks before
+ * storage starts thrashing).
+ * <p>
+ * Latency of each read is normalized by its size (plus a fixed cost
+ * per file), the lowest observed value is a baseline which slowly
+ * follows latency up. If a read is much slower than the baseline 
+ * the limit is decreased (at most once per a window of reads in 
+ * flight), otherwise it is increased by one per the limit of 
+ * reads, but only while there are reads waiting for their turn.
+ * <p>
+ * Only time spent on I/O is taken as latency if read tasks report
+ * it (files read by {@link ContentReader} are), so searching done by
+ * the same task does not look like slow storage. Tasks which report
+ * nothing are timed as a whole.
+ * <p>
+ * Reads waiting for their turn do not occupy executor threads.
+ * The limit is kept between operations, so one object should be 
+ * used for the same storage. Object is thread safe.
+ * @author dmv
+ * @since 2017 February 15
+ */
+public class ReadLimiter {
+
+    /* Latency to baseline ratio considered as overload */
+    private static final double TOLERANCE = 2.0;
+    private static final double BACKOFF = 0.75;
+    /* How fast baseline follows rising latency */
+    private static final double BASELINE_DRIFT = 0.01;
+    /* Fixed cost of a file read, in bytes */
+    private static final long FILE_COST = 4096;
+    /* I/O time reported by the task current thread runs, negative if none */
+    private static final ThreadLocal<long[]> REPORTED = new ThreadLocal<>();
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final Queue<Runnable> waiting;
+    private double limit;
+    private int inFlight;
+    /* nanoseconds per byte */
+    private double baseline;
+    /* reads to complete before the next decrease */
+    private int cooldown;
+
+    /**
+     * Create limiter with given bounds
+     * @param initialLimit limit to start with
+     * @param minLimit lowest limit
+     * @param maxLimit highest limit
+     * @throws IllegalArgumentException unless 
+     *         {@code 0 < minLimit <= initialLimit <= maxLimit}
+     */
+    public ReadLimiter(int initialLimit, int minLimit, int maxLimit) {
+        if (minLimit <= 0 || initialLimit < minLimit || maxLimit < initialLimit)
+            throw new IllegalArgumentException(
+                    "Limits must satisfy 0 < minLimit <= initialLimit <= maxLimit");
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        limit = initialLimit;
+        waiting = new ArrayDeque<>();
+    }
+
+    /**
+     * @return current limit of reads in flight
+     */
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    /**
+     * @return number of reads in flight
+     */
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    /**
+     * Run a read task with given executor as soon as the limit
+     * allows it
+     * @param task reading task
+     * @param bytes number of bytes the task reads
+     * @param exec executor to run the task with
+     * @return future of task's result, it is completed exceptionally
+     *         if the task fails or the executor rejects it
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> task, long bytes, Executor exec) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        Runnable read = () -> read(task, bytes, future);
+        synchronized (this) {
+            waiting.add(() -> {
+                try {
+                    exec.execute(read);
+                } catch (RejectedExecutionException e) {
+                    completed(-1, bytes);
+                    future.completeExceptionally(e);
+                }
+            });
+        }
+        dispatch();
+        return future;
+    }
+
+    /**
+     * Report time of an I/O operation done by a read task which
+     * is being run by a limiter in current thread. Reports made
+     * outside of such tasks are ignored.
+     * @param nanos time of operation in nanoseconds
+     */
+    static void reportIoTime(long nanos) {
+        long[] reported = REPORTED.get();
+        if (reported != null) reported[0] = Math.max(reported[0], 0) + nanos;
+    }
+
+    /* read is counted as completed before its future is */
+    private <T> void read(Supplier<T> task, long bytes, CompletableFuture<T> future) {
+        long[] reported = {-1};
+        REPORTED.set(reported);
+        long start = System.nanoTime();
+        T result = null;
+        Throwable failure = null;
+        try {
+            result = task.get();
+        } catch (Throwable e) {
+            failure = e;
+        } finally {
+            REPORTED.remove();
+        }
+        long nanos = System.nanoTime() - start;
+        completed(reported[0] >= 0 ? reported[0] : nanos, bytes);
+        if (failure != null) future.completeExceptionally(failure);
+        else                 future.complete(result);
+    }
+
+    /* executor is called outside of the lock */
+    private void dispatch() {
+        List<Runnable> ready = new ArrayList<>();
+        synchronized (this) {
+            while (inFlight < (int) limit && !waiting.isEmpty()) {
+                inFlight++;
+                ready.add(waiting.poll());
+            }
+        }
+        ready.forEach(Runnable::run);
+    }
+
+    /* negative time means the read was not done */
+    private void completed(long nanos, long bytes) {
+        synchronized (this) {
+            inFlight--;
+            if (nanos >= 0) adjust(nanos, bytes);
+        }
+        dispatch();
+    }
+
+    private void adjust(long nanos, long bytes) {
+        double latency = (double) nanos / (bytes + FILE_COST);
+        if (baseline == 0 || latency < baseline) baseline = latency;
+        else baseline += (latency - baseline) * BASELINE_DRIFT;
+        if (cooldown > 0) cooldown--;
+        if (latency > baseline * TOLERANCE) {
+            if (cooldown == 0) {
+                limit = Math.max(minLimit, limit * BACKOFF);
+                cooldown = inFlight + 1;
+            }
+        } else if (!waiting.isEmpty()) {
+            limit = Math.min(maxLimit, limit + 1 / limit);
+        }
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("ReadLimiter [limit=%s, inFlight=%s, minLimit=%s, maxLimit=%s]",
+                             (int) limit, inFlight, minLimit, maxLimit);
+    }
+}
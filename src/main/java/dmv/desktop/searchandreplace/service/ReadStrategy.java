@@ -0,0 +1,38 @@
+/**
+ * 
+ */
+package dmv.desktop.searchandreplace.service;
+
+/**
+ * Enum <tt>ReadStrategy.java</tt> lists ways file content may be
+ * read with. {@link ContentReader} picks one of them by file size,
+ * so a few bytes long config and a multi-gigabyte dump are not 
+ * read the same way.
+ * @author dmv
+ * @since 2017 February 12
+ */
+public enum ReadStrategy {
+
+    /**
+     * Tiny files are read completely at once into a buffer kept
+     * by each thread between files, and then they are sniffed, 
+     * so binary ones are not decoded
+     */
+    WHOLE,
+    /**
+     * Medium files are read into the same buffer, but the first
+     * block is sniffed before the rest is read, so only that block
+     * is read if the file looks like a binary one
+     */
+    BUFFERED,
+    /**
+     * Large files are read and decoded chunk by chunk, so there
+     * is no intermediate array of all file's bytes
+     */
+    CHUNKED,
+    /**
+     * Files read ahead asynchronously (see {@link AsyncReader}) are
+     * only decoded, this strategy is never chosen by file size
+     */
+    ASYNC;
+}
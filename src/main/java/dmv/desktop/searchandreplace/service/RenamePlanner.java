@@ -0,0 +1,172 @@
+/**
+ *
+ */
+package dmv.desktop.searchandreplace.service;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import dmv.desktop.searchandreplace.collection.TupleImpl;
+import dmv.desktop.searchandreplace.model.SearchResult;
+import dmv.desktop.searchandreplace.model.SearchResultImpl;
+
+/**
+ * Class <tt>RenamePlanner.java</tt> renames files of a whole pass
+ * at once, after their content was written. All new names are chosen
+ * before anything is renamed: renames are grouped by folder, each
+ * folder is listed once, and names are given in order of old paths,
+ * so the same files and folders always get the same names.
+ * <p>
+ * If a new name is taken already, suffixes "_1", "_2" and so on
+ * are tried before the extension until a free name is found (see
+ * {@link #firstFree(Path, Predicate)}). Old names of renamed files
+ * stay taken, so a file is never given the name of another one, even
+ * if that one is renamed too.
+ * <p>
+ * Files are then moved in order of given results, so folders listed
+ * after the files in them are renamed after those files. A move never
+ * replaces an existing file: if a file appeared under a planned name
+ * since its folder was listed, that rename fails and is reported as
+ * an exceptional result. Object is meant for a single pass and is
+ * not thread safe.
+ * @author dmv
+ * @since 2017 February 23
+ */
+public class RenamePlanner {
+
+    private int listedFolders;
+
+    /**
+     * Choose new names of renamed files and rename them. Results
+     * with a new name are renamed, the others are kept as they are.
+     * @param results results of files written by the same pass,
+     *                in order they must be renamed in
+     * @return results in the same order, with names actually given,
+     *         or exceptional ones if a file could not be renamed
+     * @throws NullPointerException if results is null
+     */
+    public List<SearchResult> rename(List<SearchResult> results) {
+        Objects.requireNonNull(results);
+        List<SearchResult> renamed = new ArrayList<>(results);
+        Path[] planned = plan(renamed);
+        for (int i = 0; i < planned.length; i++) {
+            if (planned[i] == null) continue;
+            SearchResult result = renamed.get(i);
+            Path file = result.getModifiedName().getFirst();
+            try {
+                /* without REPLACE_EXISTING (and ATOMIC_MOVE) existing target is not replaced */
+                Files.move(file, planned[i]);
+                if (!planned[i].equals(result.getModifiedName().getLast()))
+                    renamed.set(i, SearchResultImpl.getBuilder()
+                                                   .setResult(result)
+                                                   .setModifiedName(new TupleImpl<>(file, planned[i]))
+                                                   .build());
+            } catch (IOException e) {
+                renamed.set(i, exceptionalResult(e));
+            }
+        }
+        return renamed;
+    }
+
+    /**
+     * @return number of folders listed so far
+     */
+    int getListedFolders() {
+        return listedFolders;
+    }
+
+    /* new path of each renamed result, results of not listed folders fail */
+    private Path[] plan(List<SearchResult> results) {
+        Map<Path, List<Integer>> folders = new HashMap<>();
+        for (int i = 0; i < results.size(); i++)
+            if (isRenamed(results.get(i)))
+                folders.computeIfAbsent(results.get(i).getModifiedName().getLast()
+                                               .toAbsolutePath().getParent(),
+                                        folder -> new ArrayList<>())
+                       .add(i);
+        Path[] planned = new Path[results.size()];
+        Comparator<Integer> byOldPath =
+                Comparator.comparing(i -> results.get(i).getModifiedName().getFirst());
+        for (Map.Entry<Path, List<Integer>> folder : folders.entrySet()) {
+            List<Integer> renames = folder.getValue();
+            Set<String> names;
+            try {
+                names = list(folder.getKey());
+            } catch (IOException e) {
+                for (int i : renames) results.set(i, exceptionalResult(e));
+                continue;
+            }
+            for (int i : renames)
+                names.add(results.get(i).getModifiedName().getFirst().getFileName().toString());
+            renames.sort(byOldPath);
+            for (int i : renames) {
+                Path path = firstFree(results.get(i).getModifiedName().getLast(),
+                                      candidate -> names.contains(candidate.getFileName().toString()));
+                names.add(path.getFileName().toString());
+                planned[i] = path;
+            }
+        }
+        return planned;
+    }
+
+    private static boolean isRenamed(SearchResult result) {
+        return !result.isExceptional() && result.getModifiedName() != null &&
+               result.getModifiedName().getLast() != null;
+    }
+
+    private Set<String> list(Path folder) throws IOException {
+        Set<String> names = new HashSet<>();
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(folder)) {
+            for (Path entry : entries)
+                names.add(entry.getFileName().toString());
+        }
+        listedFolders++;
+        return names;
+    }
+
+    private static SearchResult exceptionalResult(Exception e) {
+        return SearchResultImpl.getBuilder()
+                               .setExceptional(true)
+                               .setCause(e)
+                               .build();
+    }
+
+    /**
+     * Find the first free name, the name itself or with suffix
+     * "_N" (N = 1, 2, ...) before its extension
+     * @param target desired path
+     * @param taken check of paths being taken
+     * @return target or the first path with suffix which is not taken
+     */
+    public static Path firstFree(Path target, Predicate<Path> taken) {
+        if (!taken.test(target)) return target;
+        String name = target.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        /* names like '.gitignore' have no extension */
+        if (dot <= 0) dot = name.length();
+        String base = name.substring(0, dot) + "_";
+        String extension = name.substring(dot);
+        Path candidate;
+        int suffix = 1;
+        do {
+            candidate = target.resolveSibling(base + suffix++ + extension);
+        } while (taken.test(candidate));
+        return candidate;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("RenamePlanner [listedFolders=%s]", listedFolders);
+    }
+}
@@ -0,0 +1,37 @@
+/**
+ * 
+ */
+package dmv.desktop.searchandreplace.service;
+
+/**
+ * Enum <tt>SchedulingPolicy.java</tt> lists orders in which 
+ * {@link FolderWalker} submits found files for processing. 
+ * Results are given back in the order files were found 
+ * whatever the policy is (a batch of small files takes place
+ * of its first file).
+ * @author dmv
+ * @since 2017 February 14
+ */
+public enum SchedulingPolicy {
+
+    /**
+     * Files are submitted as soon as they are found, so
+     * reading goes along with folders traversal
+     */
+    WALK_ORDER,
+    /**
+     * Files are submitted after traversal is over, the biggest
+     * ones first (longest processing time first heuristic), so a 
+     * huge file found last does not become the tail of a run, 
+     * while small files fill remaining capacity
+     */
+    LARGEST_FIRST,
+    /**
+     * Files are collected in windows (see {@link 
+     * FolderWalker#setScheduleWindow(int)}), each window is submitted
+     * sorted by files {@link java.nio.file.attribute.BasicFileAttributes#fileKey() 
+     * keys} (device and inode numbers), so reads on rotational or
+     * network storage are nearly sequential instead of random
+     */
+    FILE_KEY_ORDER;
+}
@@ -0,0 +1,162 @@
+/**
+ *
+ */
+package dmv.desktop.searchandreplace.service;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Class <tt>SearchStatistics.java</tt> collects counters of
+ * what was done (or avoided) while files were being processed.
+ * One object may be shared between many {@link FileReplacer}s
+ * working in parallel, so counters are thread safe (and cheap
+ * to update under contention), while values read during
+ * processing are not guaranteed to be exact snapshots.
+ * <p>
+ * Files read with each {@link ReadStrategy} are counted separately,
+ * along with size limits the strategies were chosen by. Text files
+ * that were read but not decoded, because their bytes can't contain
+ * 'what to find' (see {@link SwarMatcher}), are counted apart.
+ * @author dmv
+ * @since 2017 February 09
+ */
+public class SearchStatistics {
+
+    private final LongAdder skippedFiles;
+    private final LongAdder bytesSaved;
+    private final LongAdder notDecoded;
+    private final Map<ReadStrategy, LongAdder> filesRead;
+    private final Map<ReadStrategy, LongAdder> bytesRead;
+    private volatile long tinyLimit;
+    private volatile long largeLimit;
+
+    /**
+     * Create statistics with all counters set to zero
+     */
+    public SearchStatistics() {
+        skippedFiles = new LongAdder();
+        bytesSaved = new LongAdder();
+        notDecoded = new LongAdder();
+        filesRead = new EnumMap<>(ReadStrategy.class);
+        bytesRead = new EnumMap<>(ReadStrategy.class);
+        for (ReadStrategy strategy : ReadStrategy.values()) {
+            filesRead.put(strategy, new LongAdder());
+            bytesRead.put(strategy, new LongAdder());
+        }
+    }
+
+    /**
+     * Count a file that was recognized as a binary one
+     * and was not read completely
+     * @param bytesNotRead number of file's bytes that were not read
+     */
+    public void binarySkipped(long bytesNotRead) {
+        skippedFiles.increment();
+        bytesSaved.add(bytesNotRead);
+    }
+
+    /**
+     * Count a text file that was read completely
+     * @param strategy the way file was read
+     * @param bytes number of bytes read
+     */
+    public void fileRead(ReadStrategy strategy, long bytes) {
+        filesRead.get(strategy).increment();
+        bytesRead.get(strategy).add(bytes);
+    }
+
+    /**
+     * Count a text file that was read but was not decoded,
+     * because it can't contain 'what to find'
+     */
+    public void fileNotDecoded() {
+        notDecoded.increment();
+    }
+
+    /**
+     * Remember size limits {@link ReadStrategy}s are chosen by
+     * @param tinyLimit size up to which files are read at once
+     * @param largeLimit size from which files are read in chunks
+     */
+    public void setReadLimits(long tinyLimit, long largeLimit) {
+        this.tinyLimit = tinyLimit;
+        this.largeLimit = largeLimit;
+    }
+
+    /**
+     * @return number of files skipped as binary ones
+     */
+    public long getSkippedFiles() {
+        return skippedFiles.sum();
+    }
+
+    /**
+     * @return number of bytes that were not read because
+     *         files were skipped
+     */
+    public long getBytesSaved() {
+        return bytesSaved.sum();
+    }
+
+    /**
+     * @return number of files that were read but not decoded
+     */
+    public long getFilesNotDecoded() {
+        return notDecoded.sum();
+    }
+
+    /**
+     * @param strategy the way files were read
+     * @return number of text files read with given strategy
+     */
+    public long getFilesRead(ReadStrategy strategy) {
+        return filesRead.get(strategy).sum();
+    }
+
+    /**
+     * @param strategy the way files were read
+     * @return number of bytes read with given strategy
+     */
+    public long getBytesRead(ReadStrategy strategy) {
+        return bytesRead.get(strategy).sum();
+    }
+
+    /**
+     * @return size up to which files are read at once
+     */
+    public long getTinyLimit() {
+        return tinyLimit;
+    }
+
+    /**
+     * @return size from which files are read in chunks
+     */
+    public long getLargeLimit() {
+        return largeLimit;
+    }
+
+    /**
+     * Set all counters to zero, limits are kept
+     */
+    public void reset() {
+        skippedFiles.reset();
+        bytesSaved.reset();
+        notDecoded.reset();
+        filesRead.values().forEach(LongAdder::reset);
+        bytesRead.values().forEach(LongAdder::reset);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder read = new StringBuilder();
+        for (ReadStrategy strategy : ReadStrategy.values())
+            read.append(String.format(", %s=%s/%sB", strategy, 
+                                      getFilesRead(strategy), getBytesRead(strategy)));
+        return String.format("SearchStatistics [skippedFiles=%s, bytesSaved=%s, "
+                             + "filesNotDecoded=%s%s, tinyLimit=%s, largeLimit=%s]",
+                             getSkippedFiles(), getBytesSaved(), getFilesNotDecoded(), read, 
+                             tinyLimit, largeLimit);
+    }
+}
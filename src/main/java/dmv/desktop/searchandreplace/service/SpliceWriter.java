@@ -0,0 +1,221 @@
+/**
+ *
+ */
+package dmv.desktop.searchandreplace.service;
+
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AccessDeniedException;
+import java.nio.file.FileSystemException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.AclFileAttributeView;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFileAttributes;
+import java.nio.file.attribute.UserDefinedFileAttributeView;
+import java.util.List;
+import java.util.function.Function;
+
+import dmv.desktop.searchandreplace.model.ReplaceMarker;
+
+/**
+ * Class <tt>SpliceWriter.java</tt> writes modified content of a big
+ * file without encoding all of it again: unchanged ranges of bytes
+ * are copied from the original file with {@code FileChannel.transferTo}
+ * (which the OS may do without copying them through the JVM), and only
+ * replacements are encoded. Output goes into a temporary file next to
+ * the original one, which is then moved over the original.
+ * <p>
+ * That is only possible if byte offsets of the original file may be
+ * computed from char offsets of its content (UTF-8 and single byte
+ * charsets, see {@link #isSupported(Charset)}), and only if the file
+ * has not been changed since it was read: its last modified time
+ * must be the same as in attributes read before reading, and its size
+ * must be the size of encoded content. Otherwise nothing is written,
+ * so the content must be written the usual way.
+ * <p>
+ * The moved file is another inode, so it would lose whatever belongs
+ * to the original inode. Files with more than one hard link are not
+ * spliced, as their other names would keep the old content. POSIX
+ * permissions, owner, group, ACL and user defined attributes are copied
+ * onto the temporary file before the move, and if any of them can't be
+ * copied (another owner, for instance) nothing is written either.
+ * A symbolic link is resolved before anything is checked, so it is
+ * the link's target which is spliced and replaced, and the link
+ * itself is kept.
+ * Other metadata, like creation time or security labels, is not kept.
+ * @author dmv
+ * @since 2017 February 21
+ */
+final class SpliceWriter {
+
+    private SpliceWriter() {}
+
+    /**
+     * @param charset charset of a file
+     * @return true if a file in that charset may be spliced
+     */
+    static boolean isSupported(Charset charset) {
+        return charset.equals(StandardCharsets.UTF_8) ||
+               charset.equals(StandardCharsets.ISO_8859_1) ||
+               charset.equals(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Write content with replacements into the file
+     * @param path original file or a symbolic link to it
+     * @param attributes file's attributes read before its content was
+     * @param text decoded content of the file
+     * @param markers markers of found spots, in order of their indices,
+     *                excluded ones are skipped
+     * @param replacements replacement of each marker
+     * @param charset supported charset of the file
+     * @param throttle limiter of I/O rate or null
+     * @return true if file was written, false if it has been changed
+     *         since it was read, has other hard links or its attributes
+     *         can't be copied (nothing is written then)
+     * @throws IOException if file can't be written
+     */
+    static boolean write(Path path, BasicFileAttributes attributes, String text,
+                         List<ReplaceMarker> markers,
+                         Function<ReplaceMarker, String> replacements,
+                         Charset charset, IoThrottle throttle) throws IOException {
+        /* moving over a link would replace the link, not its target */
+        Path file = path.toRealPath();
+        if (!Files.getLastModifiedTime(file).equals(attributes.lastModifiedTime()))
+            return false;
+        /* file would be replaced by moving even if it is read only */
+        if (!Files.isWritable(file)) throw new AccessDeniedException(file.toString());
+        if (linkCount(file) > 1) return false;
+        Path temp = null;
+        try (FileChannel source = FileChannel.open(file, READ)) {
+            if (source.size() != encodedLength(text, 0, text.length(), charset))
+                return false;
+            temp = Files.createTempFile(file.getParent(),
+                                        ".splice", ".tmp");
+            if (!copyAttributes(file, temp)) {
+                Files.delete(temp);
+                return false;
+            }
+            try (FileChannel target = FileChannel.open(temp, WRITE)) {
+                if (throttle != null) throttle.acquire(1, 0);
+                int copiedChars = 0;
+                long copiedBytes = 0;
+                for (ReplaceMarker marker : markers) {
+                    if (marker.isExcluded()) continue;
+                    long start = copiedBytes +
+                                 encodedLength(text, copiedChars, marker.getStartIndex(), charset);
+                    transfer(source, copiedBytes, start - copiedBytes, target, throttle);
+                    ByteBuffer replacement =
+                            CharsetCoders.encode(replacements.apply(marker), charset);
+                    if (throttle != null) throttle.acquire(0, replacement.remaining());
+                    while (replacement.hasRemaining()) target.write(replacement);
+                    copiedChars = marker.getStartIndex() + marker.getLength();
+                    copiedBytes = start + encodedLength(text, marker.getStartIndex(),
+                                                        copiedChars, charset);
+                }
+                transfer(source, copiedBytes, source.size() - copiedBytes, target, throttle);
+            }
+        } catch (IOException | RuntimeException e) {
+            if (temp != null) Files.deleteIfExists(temp);
+            throw e;
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING,
+                               StandardCopyOption.ATOMIC_MOVE);
+        return true;
+    }
+
+    /**
+     * Count bytes of encoded chars without encoding them
+     * @param text decoded content
+     * @param from index of the first char (inclusive)
+     * @param to index of the last char (exclusive)
+     * @param charset supported charset
+     * @return number of bytes
+     */
+    static long encodedLength(CharSequence text, int from, int to, Charset charset) {
+        if (!charset.equals(StandardCharsets.UTF_8)) return to - from;
+        long length = 0;
+        for (int i = from; i < to; i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                length++;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < to &&
+                       Character.isLowSurrogate(text.charAt(i + 1))) {
+                length += 4;
+                i++;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+
+    /* target's position is moved by transferred bytes */
+    private static void transfer(FileChannel source, long position, long count,
+                                 FileChannel target, IoThrottle throttle) throws IOException {
+        if (throttle != null) throttle.acquire(0, count);
+        while (count > 0) {
+            long transferred = source.transferTo(position, count, target);
+            if (transferred <= 0) throw new IOException("File was truncated while being written");
+            position += transferred;
+            count -= transferred;
+        }
+    }
+
+    /* file systems without 'unix' view have no hard links to care about */
+    private static int linkCount(Path file) throws IOException {
+        try {
+            return (Integer) Files.getAttribute(file, "unix:nlink");
+        } catch (UnsupportedOperationException | IllegalArgumentException e) {
+            return 1;
+        }
+    }
+
+    /*
+     * Temporary files are created accessible by their creator only.
+     * Owner and group are set before permissions, as changing them
+     * may clear set-user-ID and set-group-ID bits
+     */
+    private static boolean copyAttributes(Path from, Path to) throws IOException {
+        try {
+            PosixFileAttributeView posix = 
+                    Files.getFileAttributeView(to, PosixFileAttributeView.class);
+            if (posix != null) {
+                PosixFileAttributes original = Files.readAttributes(from, PosixFileAttributes.class);
+                if (!original.owner().equals(Files.getOwner(to))) posix.setOwner(original.owner());
+                posix.setGroup(original.group());
+                posix.setPermissions(original.permissions());
+            }
+            AclFileAttributeView acl = Files.getFileAttributeView(from, AclFileAttributeView.class);
+            if (acl != null)
+                Files.getFileAttributeView(to, AclFileAttributeView.class).setAcl(acl.getAcl());
+            UserDefinedFileAttributeView source = 
+                    Files.getFileAttributeView(from, UserDefinedFileAttributeView.class);
+            if (source != null) {
+                UserDefinedFileAttributeView target = 
+                        Files.getFileAttributeView(to, UserDefinedFileAttributeView.class);
+                for (String name : source.list()) {
+                    ByteBuffer value = ByteBuffer.allocate(source.size(name));
+                    source.read(name, value);
+                    value.flip();
+                    target.write(name, value);
+                }
+            }
+            return true;
+        } catch (FileSystemException e) {
+            // not permitted or not supported by the file system
+            return false;
+        }
+    }
+}
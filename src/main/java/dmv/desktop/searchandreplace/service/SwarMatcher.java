@@ -0,0 +1,163 @@
+/**
+ *
+ */
+package dmv.desktop.searchandreplace.service;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.CharBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import dmv.desktop.searchandreplace.model.LiteralSearchPattern;
+import dmv.desktop.searchandreplace.model.SearchPattern;
+import dmv.desktop.searchandreplace.model.WholeWordSearchPattern;
+
+/**
+ * Class <tt>SwarMatcher.java</tt> finds a sequence of bytes in raw
+ * (not yet decoded) content, eight bytes at a time: words of content
+ * are compared with the first and the last byte of the sequence
+ * in all their bytes at once with SWAR (SIMD within a register)
+ * bit tricks, and only candidates where both bytes match are
+ * verified byte by byte.
+ * <p>
+ * It is used as a prefilter, so files which can't contain
+ * 'what to find' are not decoded and scanned at all. That is
+ * exact only for case sensitive literal patterns (whole word
+ * ones included) in charsets where every character has the only
+ * encoding and a text contains a word only if its bytes contain
+ * encoded word, see {@link #forPattern(SearchPattern, Charset)}.
+ * <p>
+ * Object is immutable and may be shared between threads.
+ * @author dmv
+ * @since 2017 February 19
+ */
+public class SwarMatcher {
+
+    private static final long LOW_BITS = 0x0101010101010101L;
+    private static final long HIGH_BITS = 0x8080808080808080L;
+    /* Charsets in which found bytes mean found characters */
+    private static final Set<Charset> EXACT_CHARSETS = Collections.unmodifiableSet(
+            new HashSet<>(Arrays.asList(StandardCharsets.UTF_8,
+                                        StandardCharsets.US_ASCII,
+                                        StandardCharsets.ISO_8859_1)));
+
+    private final byte[] sequence;
+    /* the first and the last byte in every byte of a word */
+    private final long firstBytes;
+    private final long lastBytes;
+
+    /**
+     * Create matcher of given sequence
+     * @param sequence bytes to be found
+     * @throws IllegalArgumentException if sequence is null or empty
+     */
+    public SwarMatcher(byte[] sequence) {
+        if (sequence == null || sequence.length == 0)
+            throw new IllegalArgumentException("Sequence must not be empty");
+        this.sequence = sequence.clone();
+        firstBytes = LOW_BITS * (sequence[0] & 0xFF);
+        lastBytes = LOW_BITS * (sequence[sequence.length - 1] & 0xFF);
+    }
+
+    /**
+     * Create prefilter for given pattern if it is exact for it
+     * @param pattern 'what to find' pattern
+     * @param charset charset of files content
+     * @return matcher of encoded 'what to find' string or null
+     *         if content must be decoded to be searched
+     */
+    public static SwarMatcher forPattern(SearchPattern pattern, Charset charset) {
+        if (pattern instanceof WholeWordSearchPattern)
+            pattern = ((WholeWordSearchPattern) pattern).getPattern();
+        if (!(pattern instanceof LiteralSearchPattern) ||
+            ((LiteralSearchPattern) pattern).isIgnoreCase() ||
+            !EXACT_CHARSETS.contains(charset))
+            return null;
+        try {
+            ByteBuffer encoded = charset.newEncoder()
+                                        .encode(CharBuffer.wrap(pattern.getToFind()));
+            if (!encoded.hasRemaining()) return null;
+            return new SwarMatcher(Arrays.copyOf(encoded.array(), encoded.limit()));
+        } catch (CharacterCodingException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @return copy of the sequence being found
+     */
+    public byte[] getSequence() {
+        return sequence.clone();
+    }
+
+    /**
+     * Find the first occurrence of the sequence
+     * @param data bytes to search in
+     * @param from index to start from (inclusive)
+     * @param to index to stop at (exclusive)
+     * @return index of the sequence or -1 if it was not found
+     */
+    public int indexOf(byte[] data, int from, int to) {
+        int last = sequence.length - 1;
+        ByteBuffer words = ByteBuffer.wrap(data).order(ByteOrder.LITTLE_ENDIAN);
+        int i = from;
+        /* words of the first and the last bytes must be within the range */
+        for (; i + last + Long.BYTES <= to; i += Long.BYTES) {
+            long found = zeroBytes(words.getLong(i) ^ firstBytes) &
+                         zeroBytes(words.getLong(i + last) ^ lastBytes);
+            /* lowest bits belong to the first byte of little endian word */
+            while (found != 0) {
+                int candidate = i + (Long.numberOfTrailingZeros(found) >>> 3);
+                if (matches(data, candidate)) return candidate;
+                found &= found - 1;
+            }
+        }
+        for (; i + last < to; i++)
+            if (data[i] == sequence[0] && matches(data, i)) return i;
+        return -1;
+    }
+
+    /**
+     * Find the first byte which is not an ASCII character
+     * @param data bytes to search in
+     * @param from index to start from (inclusive)
+     * @param to index to stop at (exclusive)
+     * @return index of the byte or -1 if all bytes are ASCII ones
+     */
+    public static int indexOfNonAscii(byte[] data, int from, int to) {
+        ByteBuffer words = ByteBuffer.wrap(data).order(ByteOrder.LITTLE_ENDIAN);
+        int i = from;
+        for (; i + Long.BYTES <= to; i += Long.BYTES) {
+            long found = words.getLong(i) & HIGH_BITS;
+            if (found != 0) return i + (Long.numberOfTrailingZeros(found) >>> 3);
+        }
+        for (; i < to; i++)
+            if (data[i] < 0) return i;
+        return -1;
+    }
+
+    /*
+     * High bit is set in every zero byte, and may be set in bytes
+     * above a zero one (they are just verified in vain)
+     */
+    private static long zeroBytes(long word) {
+        return (word - LOW_BITS) & ~word & HIGH_BITS;
+    }
+
+    private boolean matches(byte[] data, int at) {
+        for (int j = 0; j < sequence.length; j++)
+            if (data[at + j] != sequence[j]) return false;
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("SwarMatcher [sequence=%s]", Arrays.toString(sequence));
+    }
+}
@@ -184,6 +184,10 @@ public class ReplaceFilesConsoleApplication implements ConsoleApplication {
             EXECS_POOL.shutdownNow();
     }
 
+    /* 
+     * number of reads at once is tuned by the service, the pool is not
+     * sized for its maximum: reads above the pool size wait in its queue
+     */
     private static final int UNITS = Runtime.getRuntime().availableProcessors() * 2;
     private static final ExecutorService EXECS_POOL = Executors.newFixedThreadPool(UNITS);
     
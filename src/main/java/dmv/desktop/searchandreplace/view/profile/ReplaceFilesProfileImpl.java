@@ -11,6 +11,7 @@ import java.util.Set;
 import dmv.desktop.searchandreplace.exception.WrongProfileException;
 import dmv.desktop.searchandreplace.model.*;
 import dmv.desktop.searchandreplace.service.FolderWalker;
+import dmv.desktop.searchandreplace.service.ReadLimiter;
 import dmv.desktop.searchandreplace.service.SearchAndReplace;
 
 
@@ -38,6 +39,12 @@ public class ReplaceFilesProfileImpl implements ReplaceFilesProfile {
     private static final String SUBFOLDERS_KEY = "\n" + KEYS_SUBFOLDERS.get(longVersion) + "\n";
     private static final String PATTERNS_KEY = "\n" + KEYS_PATTERNS.get(longVersion) + "\n";
     private static final String EXCLUDE_KEY = "\n" + KEYS_EXCLUDE.get(longVersion) + "\n";
+    /* reads in flight are tuned at runtime */
+    private static final int READS_IN_FLIGHT = Runtime.getRuntime().availableProcessors();
+    private static final int MAX_READS_IN_FLIGHT = READS_IN_FLIGHT * 8;
+    /* the limit is learned once for all services of application */
+    private static final ReadLimiter LIMITER = 
+            new ReadLimiter(READS_IN_FLIGHT, 1, MAX_READS_IN_FLIGHT);
     
     /* this profile name */
     private String name;
@@ -308,7 +315,9 @@ public class ReplaceFilesProfileImpl implements ReplaceFilesProfile {
                                          .setFilename(getFilenames())
                                          .setExclusions(getExclusions())
                                          .build();
-                service = new FolderWalker(folder, profile);
+                FolderWalker walker = new FolderWalker(folder, profile);
+                walker.setReadLimiter(LIMITER);
+                service = walker;
                 searchPath = folder;
                 searchProfile = profile;
             }
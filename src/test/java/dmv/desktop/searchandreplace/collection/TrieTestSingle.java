@@ -59,6 +59,20 @@ public class TrieTestSingle extends TrieTest {
         assertTrue(target.containsAnyFrom("cb!iO32"));
     }
     
+    @Test
+    public void ignoreCase() {
+        Trie ignoreCase = new IgnoreCaseSearchTrie();
+        ignoreCase.add("AbC");
+        ignoreCase.add("abc");
+        ignoreCase.add("ÄÖ");
+        assertThat(ignoreCase.size(), is(2));
+        assertTrue(ignoreCase.contains("ABC"));
+        assertTrue(ignoreCase.contains("äö"));
+        assertTrue(ignoreCase.containsAnyFrom("aBcD"));
+        assertFalse(ignoreCase.contains("ab"));
+        assertFalse(target.contains("AB"));
+    }
+    
     @Test
     public void aBunchOfWords() {
         words.forEach(w -> assertTrue(target.contains(w)));
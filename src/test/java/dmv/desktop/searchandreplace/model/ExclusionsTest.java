@@ -224,6 +224,41 @@ public class ExclusionsTest {
         target = new ExclusionsTrie(exclude, null, true);
     }
 
+    @Test
+    public void ignoreCase() {
+        exclude.add(prefix + toFind.toUpperCase() + suffix);
+        
+        target = new ExclusionsTrie(exclude, toFind, true, true);
+        
+        assertThat(target.maxPrefixSize(), is(prefix.length()));
+        assertTrue(target.containsPrefix(prefix.toUpperCase(), true));
+        assertTrue(target.containsSuffix(suffix.toLowerCase()));
+        assertFalse(target.containsSuffix(otherSuffix));
+    }
+
+    @Test
+    public void setIgnoreCase() {
+        exclude.add(prefix + toFind + suffix);
+        target = new ExclusionsTrie(exclude, toFind, true);
+        assertFalse(target.isIgnoreCase());
+        assertThat(target.setIgnoreCase(false), is(target));
+        assertFalse(target.containsSuffix(suffix.toUpperCase()));
+        
+        Exclusions ignoreCase = target.setIgnoreCase(true);
+        assertTrue(ignoreCase.isIgnoreCase());
+        assertThat(ignoreCase.maxPrefixSize(), is(prefix.length()));
+        /* prefixes stay reversed */
+        assertTrue(ignoreCase.containsPrefix(prefix.toUpperCase(), true));
+        assertTrue(ignoreCase.containsSuffix(suffix.toUpperCase()));
+        assertFalse(ignoreCase.setIgnoreCase(false).containsSuffix(suffix.toUpperCase()));
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void caseSensitive() {
+        exclude.add(prefix + toFind.toUpperCase() + suffix);
+        new ExclusionsTrie(exclude, toFind, true);
+    }
+
     @Test
     public void emptyExclusions1() {
         target = new ExclusionsTrie(Collections.emptyList(), null, false);
@@ -3,6 +3,7 @@ package dmv.desktop.searchandreplace.model;
 import static dmv.desktop.searchandreplace.model.SearchPath.defaultPattern;
 import static dmv.desktop.searchandreplace.model.SearchPath.defaultSubfolders;
 import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 
@@ -101,6 +102,34 @@ public abstract class SearchPathTest {
                          .isSubfolders(), is(!defaultSubfolders));
     }
     
+    @Test
+    public void testSetExcludeFolders() {
+        assertThat(target.getExcludeFolders(), is(SearchPath.defaultExcludeFolders));
+        assertFalse(target.isExcludedFolder(path.resolve(".git")));
+        
+        SearchPath exclude = target.setExcludeFolders(".git", "node_*", "build/classes");
+        assertTrue(exclude.isExcludedFolder(path.resolve(".git")));
+        assertTrue(exclude.isExcludedFolder(path.resolve("sub/sub/node_modules")));
+        assertTrue(exclude.isExcludedFolder(path.resolve("build/classes")));
+        assertFalse(exclude.isExcludedFolder(path.resolve("sub/build/classes")));
+        assertFalse(exclude.isExcludedFolder(path.resolve("git")));
+        /* main path is never excluded */
+        assertFalse(exclude.setPath(Paths.get(".git")).isExcludedFolder(Paths.get(".git")));
+        
+        assertThat(exclude.setExcludeFolders().getExcludeFolders(), 
+                   is(SearchPath.defaultExcludeFolders));
+        expected.expect(IllegalArgumentException.class);
+        target.setExcludeFolders(illegalType);
+    }
+    
+    @Test
+    public void testSetGitignore() {
+        assertThat(target.isGitignore(), is(SearchPath.defaultGitignore));
+        assertThat(target.setGitignore(!SearchPath.defaultGitignore)
+                         .setSubfolders(true)
+                         .isGitignore(), is(!SearchPath.defaultGitignore));
+    }
+    
     @Test
     public void immutabilityCheck() {
         target.setPath(path.resolve("foo"));
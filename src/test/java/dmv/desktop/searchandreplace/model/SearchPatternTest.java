@@ -0,0 +1,167 @@
+package dmv.desktop.searchandreplace.model;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.CharBuffer;
+import java.text.Normalizer;
+
+import org.junit.Test;
+
+import dmv.desktop.searchandreplace.model.SearchPattern.Finder;
+
+
+public class SearchPatternTest {
+
+    @Test
+    public void literalFinder() {
+        Finder finder = new LiteralSearchPattern("aab").finder();
+        String line = "aaab aab xaa";
+        checkSpots(finder.reset(line), 1, 4, 5, 8);
+        checkSpots(finder.reset(CharBuffer.wrap(line)), 1, 4, 5, 8);
+        assertThat(finder.replacement("$1"), is("$1"));
+        
+        assertFalse(finder.reset("").find());
+        assertFalse(finder.reset("aa").find());
+    }
+
+    @Test
+    public void regexFinder() {
+        Finder finder = new RegexSearchPattern("(\\w+)=(?<value>\\d+)").finder();
+        finder.reset("a=1, bb=22");
+        assertTrue(finder.find());
+        assertThat(finder.replacement("${value}=$1"), is("1=a"));
+        assertTrue(finder.find());
+        assertThat(finder.replacement("\\$$2$1"), is("$22bb"));
+        assertFalse(finder.find());
+        
+        /* the same finder may be reused */
+        checkSpots(finder.reset(CharBuffer.wrap("x=0")), 0, 3);
+    }
+
+    @Test
+    public void regexPrefix() {
+        assertThat(new RegexSearchPattern("abc").getPrefix(), is("abc"));
+        assertThat(new RegexSearchPattern("^ab\\.c\\d").getPrefix(), is("ab.c"));
+        assertThat(new RegexSearchPattern("abc?d").getPrefix(), is("ab"));
+        assertThat(new RegexSearchPattern("abc+d").getPrefix(), is("abc"));
+        assertThat(new RegexSearchPattern("abc{0,2}").getPrefix(), is("ab"));
+        assertThat(new RegexSearchPattern("ab|c").getPrefix(), is(""));
+        assertThat(new RegexSearchPattern("(?i)abc").getPrefix(), is(""));
+        assertThat(new RegexSearchPattern("[ab]c").getPrefix(), is(""));
+        
+        /* lines without prefix are skipped, but found ones are correct */
+        Finder finder = new RegexSearchPattern("ab+c").finder();
+        assertFalse(finder.reset("acbc abb").find());
+        checkSpots(finder.reset("ac abbc abc"), 3, 7, 8, 11);
+    }
+
+    @Test
+    public void equality() {
+        assertThat(new LiteralSearchPattern("a"), is(new LiteralSearchPattern("a")));
+        assertThat(new RegexSearchPattern("a"), is(new RegexSearchPattern("a")));
+        assertThat(new RegexSearchPattern("a").hashCode(), 
+                   is(new RegexSearchPattern("a").hashCode()));
+        assertThat(new LiteralSearchPattern("a"), is(not(new LiteralSearchPattern("b"))));
+        assertThat(new LiteralSearchPattern("a"), 
+                   is(not((SearchPattern) new RegexSearchPattern("a"))));
+    }
+
+    @Test
+    public void ignoreCase() {
+        checkSpots(new LiteralSearchPattern("aäB", true).finder().reset("AÄb xaäbb"), 
+                   0, 3, 5, 8);
+        checkSpots(new LiteralSearchPattern("aäB").finder().reset("AÄb xaäbb"));
+        checkSpots(new RegexSearchPattern("ä+b", true).finder().reset("aÄäB äb"), 
+                   1, 4, 5, 7);
+        assertThat(new LiteralSearchPattern("a", true), 
+                   is(not(new LiteralSearchPattern("a"))));
+    }
+
+    @Test
+    public void normalization() {
+        String composed = "caf\u00e9";
+        String decomposed = "cafe\u0301";
+        SearchPattern nfc = new NormalizedSearchPattern(
+                new LiteralSearchPattern(composed), Normalizer.Form.NFC);
+        /* indexes point to original (not normalized) content */
+        checkSpots(nfc.finder().reset(decomposed + " " + composed), 0, 5, 6, 10);
+        /* accented character is not the same as its base letter */
+        checkSpots(nfc.finder().reset("cafe" + "\u0301\u0327"));
+        checkSpots(nfc.finder().reset("cafe"));
+        
+        SearchPattern nfd = new NormalizedSearchPattern(
+                new LiteralSearchPattern("e\u0301"), Normalizer.Form.NFD);
+        checkSpots(nfd.finder().reset(composed + decomposed), 3, 4, 7, 9);
+        /* a part of the segment is not a match */
+        checkSpots(new NormalizedSearchPattern(new LiteralSearchPattern("e"), 
+                   Normalizer.Form.NFD).finder().reset(composed + "e"), 4, 5);
+    }
+
+    @Test
+    public void findFrom() {
+        Finder finder = new LiteralSearchPattern("aa").finder().reset("aaaa");
+        assertTrue(finder.find(1));
+        assertThat(finder.start(), is(1));
+        checkSpots(finder);
+        
+        finder = new RegexSearchPattern("a+").finder().reset("aa aa");
+        assertTrue(finder.find(1));
+        assertThat(finder.start(), is(1));
+        checkSpots(finder, 3, 5);
+    }
+
+    @Test
+    public void wholeWord() {
+        Finder finder = new WholeWordSearchPattern(
+                new LiteralSearchPattern("name"), WordBoundary.WORD).finder();
+        checkSpots(finder.reset("rename name names _name (name) имя_name"), 7, 11, 25, 29);
+        
+        /* edge characters that are not a part of word are boundaries themselves */
+        finder = new WholeWordSearchPattern(
+                new LiteralSearchPattern("(a"), WordBoundary.WORD).finder();
+        checkSpots(finder.reset("x(a (ab"), 1, 3);
+        
+        /* rejected spot overlaps with a whole word */
+        finder = new WholeWordSearchPattern(
+                new LiteralSearchPattern("a a"), WordBoundary.WORD).finder();
+        checkSpots(finder.reset("ba a a"), 3, 6);
+        
+        finder = new WholeWordSearchPattern(
+                new LiteralSearchPattern("name"), WordBoundary.ALPHANUMERIC).finder();
+        checkSpots(finder.reset("_name $name name1"), 1, 5, 7, 11);
+        
+        finder = new WholeWordSearchPattern(
+                new RegexSearchPattern("n\\w+"), WordBoundary.JAVA_IDENTIFIER).finder();
+        checkSpots(finder.reset("$name n_1.nm"), 6, 9, 10, 12);
+        
+        /* any class of characters may be given, like words with hyphens */
+        finder = new WholeWordSearchPattern(
+                new LiteralSearchPattern("name"), 
+                codePoint -> Character.isLetter(codePoint) || codePoint == '-').finder();
+        checkSpots(finder.reset("name-x name x-name name"), 7, 11, 19, 23);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void malformedRegex() {
+        new RegexSearchPattern("a)");
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void emptyLiteral() {
+        new LiteralSearchPattern("");
+    }
+
+    /* expect pairs of start and end indexes */
+    private void checkSpots(Finder finder, int... spots) {
+        for (int i = 0; i < spots.length; i += 2) {
+            assertTrue(finder.find());
+            assertThat(finder.start(), is(spots[i]));
+            assertThat(finder.end(), is(spots[i + 1]));
+        }
+        assertFalse(finder.find());
+    }
+}
@@ -25,6 +25,8 @@ public class SearchProfileImplTest extends SearchProfileTest {
         target.toString();
         assertThat(target.setCharset(null), is(not(target)));
         assertThat(target.setFilename(true), is(not(target)));
+        assertThat(target.setContent(false), is(not(target)));
+        assertThat(target.setFolderName(true), is(not(target)));
         assertThat(target.setToFind(getToFind()), is(not(target)));
         assertThat(target.setReplaceWith(""), is(not(target)));
         assertThat(target.setExclusions(null), is(not(target)));
@@ -3,11 +3,14 @@ package dmv.desktop.searchandreplace.model;
 import static dmv.desktop.searchandreplace.model.SearchProfile.defaultCharset;
 import static java.nio.charset.StandardCharsets.ISO_8859_1;
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.nullValue;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 
 import java.nio.charset.Charset;
+import java.text.Normalizer;
 import java.util.Arrays;
 
 import org.junit.Before;
@@ -62,6 +65,24 @@ public abstract class SearchProfileTest {
                          .isFileName());
     }
 
+    @Test
+    public void testIsContent() {
+        /* true by default */
+        assertTrue(target.isContent());
+        
+        assertFalse(target.setContent(false)
+                          .isContent());
+    }
+
+    @Test
+    public void testIsFolderName() {
+        /* false by default */
+        assertFalse(target.isFolderName());
+        
+        assertTrue(target.setFolderName(true)
+                         .isFolderName());
+    }
+
     @Test
     public void testToFind() {
         /* must be set by default */
@@ -84,6 +105,84 @@ public abstract class SearchProfileTest {
         target.setToFind("");
     }
 
+    @Test
+    public void testRegex() {
+        /* false by default */
+        assertFalse(target.isRegex());
+        assertThat(target.getSearchPattern().getToFind(), is(toFind));
+        
+        SearchProfile regex = target.setToFind("(\\w+)-(?<last>\\d)")
+                                    .setReplaceWith("$2${last}\\$1")
+                                    .setRegex(true);
+        assertTrue(regex.isRegex());
+        assertTrue(regex.getSearchPattern() instanceof RegexSearchPattern);
+        assertFalse(regex.setRegex(false).isRegex());
+        assertThat(regex.setRegex(false).getSearchPattern(), 
+                   is(target.setToFind(regex.getToFind()).getSearchPattern()));
+    }
+    
+    @Test
+    public void testMultiline() {
+        assertFalse(target.isMultiline());
+        assertTrue(target.setMultiline(true).isMultiline());
+        /* literal search is the same */
+        assertThat(target.setMultiline(true).getSearchPattern(), 
+                   is(target.getSearchPattern()));
+        
+        SearchProfile regex = target.setRegex(true);
+        assertThat(regex.setMultiline(true).getSearchPattern(), 
+                   is(not(regex.getSearchPattern())));
+        assertTrue(regex.setMultiline(true).setToFind("a").isMultiline());
+    }
+    
+    @Test
+    public void testIgnoreCase() {
+        assertFalse(target.isIgnoreCase());
+        assertThat(target.getNormalization(), is(nullValue()));
+        
+        SearchProfile ignoreCase = target.setIgnoreCase(true);
+        assertTrue(ignoreCase.isIgnoreCase());
+        assertThat(ignoreCase.getSearchPattern(), is(not(target.getSearchPattern())));
+        assertTrue(ignoreCase.setToFind("other").isIgnoreCase());
+        /* exclusions follow the case rule of profile */
+        assertTrue(ignoreCase.setExclusions(exclusions)
+                             .getExclusions().isIgnoreCase());
+        assertFalse(ignoreCase.setExclusions(exclusions).setIgnoreCase(false)
+                              .getExclusions().isIgnoreCase());
+        
+        SearchProfile normalized = ignoreCase.setNormalization(Normalizer.Form.NFD);
+        assertThat(normalized.getNormalization(), is(Normalizer.Form.NFD));
+        assertTrue(normalized.isIgnoreCase());
+        assertTrue(normalized.getSearchPattern() instanceof NormalizedSearchPattern);
+        assertThat(normalized.setNormalization(null).getSearchPattern(), 
+                   is(ignoreCase.getSearchPattern()));
+    }
+    
+    @Test
+    public void testWordBoundary() {
+        assertThat(target.getWordBoundary(), is(nullValue()));
+        
+        SearchProfile wholeWord = target.setWordBoundary(WordBoundary.JAVA_IDENTIFIER);
+        assertThat(wholeWord.getWordBoundary(), is(WordBoundary.JAVA_IDENTIFIER));
+        assertTrue(wholeWord.getSearchPattern() instanceof WholeWordSearchPattern);
+        assertThat(wholeWord.setIgnoreCase(true).getWordBoundary(), 
+                   is(WordBoundary.JAVA_IDENTIFIER));
+        assertThat(wholeWord.setWordBoundary(null).getSearchPattern(), 
+                   is(target.getSearchPattern()));
+    }
+    
+    @Test
+    public void malformedRegex() {
+        expected.expect(IllegalArgumentException.class);
+        target.setToFind("(unclosed").setRegex(true);
+    }
+    
+    @Test
+    public void wrongGroupReference() {
+        expected.expect(IllegalArgumentException.class);
+        target.setToFind("(one)").setRegex(true).setReplaceWith("$2");
+    }
+
     @Test
     public void testReplaceWith() {
         /* empty by default */
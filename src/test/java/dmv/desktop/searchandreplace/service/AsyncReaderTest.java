@@ -0,0 +1,104 @@
+package dmv.desktop.searchandreplace.service;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import dmv.desktop.searchandreplace.collection.Tuple;
+import dmv.desktop.searchandreplace.collection.TupleImpl;
+
+
+public class AsyncReaderTest {
+    
+    private Path folder;
+    private ExecutorService exec;
+    
+    @Before
+    public void setUp() throws IOException {
+        folder = Files.createTempDirectory("async");
+        exec = Executors.newFixedThreadPool(2);
+    }
+    
+    @After
+    public void tearDown() throws IOException {
+        exec.shutdown();
+        for (Path file : Files.newDirectoryStream(folder)) Files.delete(file);
+        Files.delete(folder);
+    }
+
+    @Test
+    public void readFiles() throws Exception {
+        char[] chars = new char[100_000];
+        Arrays.fill(chars, 'a');
+        List<Tuple<Path, BasicFileAttributes>> files = Arrays.asList(
+                file("small", "small content"), 
+                file("empty", ""), 
+                file("big", new String(chars)));
+        /* file has grown since its attributes were read */
+        Files.write(files.get(0).getFirst(), "small content grown".getBytes(UTF_8));
+        
+        List<ByteBuffer> contents = new AsyncReader(1, 1000, null)
+                                            .read(files, bytes -> bytes, exec).get();
+        assertThat(decode(contents.get(0)), is("small content grown"));
+        assertThat(decode(contents.get(1)), is(""));
+        /* big files are left for the usual way */
+        assertThat(contents.get(2), is(nullValue()));
+        
+        Files.delete(files.get(0).getFirst());
+        contents = new AsyncReader(1, 1000, null).read(files, bytes -> bytes, exec).get();
+        assertThat(contents.get(0), is(nullValue()));
+    }
+
+    @Test
+    public void limitInFlight() throws Exception {
+        AsyncReader reader = new AsyncReader(2, 1000, null);
+        AtomicInteger maxInFlight = new AtomicInteger();
+        List<CompletableFuture<Integer>> futures = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            List<Tuple<Path, BasicFileAttributes>> files = 
+                    Collections.singletonList(file("file" + i, "content " + i));
+            futures.add(reader.read(files, bytes -> {
+                maxInFlight.accumulateAndGet(reader.getInFlight(), Math::max);
+                return bytes.get(0).remaining();
+            }, exec));
+        }
+        for (CompletableFuture<Integer> future : futures)
+            assertTrue(future.get() >= "content 0".length());
+        assertThat(maxInFlight.get() <= 2, is(true));
+        assertThat(reader.getInFlight(), is(0));
+    }
+    
+    @Test(expected=IllegalArgumentException.class)
+    public void wrongLimit() {
+        new AsyncReader(0, 1000, null);
+    }
+
+    private Tuple<Path, BasicFileAttributes> file(String name, String content) throws IOException {
+        Path file = Files.write(folder.resolve(name), content.getBytes(UTF_8));
+        return new TupleImpl<>(file, Files.readAttributes(file, BasicFileAttributes.class));
+    }
+
+    private static String decode(ByteBuffer bytes) {
+        return UTF_8.decode(bytes).toString();
+    }
+}
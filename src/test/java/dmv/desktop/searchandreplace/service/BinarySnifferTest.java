@@ -0,0 +1,53 @@
+package dmv.desktop.searchandreplace.service;
+
+import static java.nio.charset.StandardCharsets.*;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.charset.Charset;
+import java.util.Random;
+
+import org.junit.Test;
+
+
+public class BinarySnifferTest {
+
+    @Test
+    public void text() {
+        String text = "Some text\r\nwith ünïcödé\tand control \0 chars";
+        checkText(text.getBytes(UTF_8), UTF_8);
+        checkText(text.getBytes(UTF_16), UTF_16);
+        checkText(text.getBytes(UTF_16LE), UTF_16LE);
+        checkText(text.getBytes(ISO_8859_1), ISO_8859_1);
+        checkText(new byte[0], UTF_8);
+        
+        /* multi-byte character is cut at the end of the block */
+        byte[] cut = "ab€".getBytes(UTF_8);
+        assertFalse(BinarySniffer.isBinary(cut, cut.length - 1, UTF_8));
+    }
+
+    @Test
+    public void signatures() {
+        byte[] png = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n'};
+        assertTrue(BinarySniffer.isBinary(png, png.length, ISO_8859_1));
+        byte[] zip = {'P', 'K', 3, 4, 'a', 'b'};
+        assertTrue(BinarySniffer.isBinary(zip, zip.length, UTF_16));
+        /* signature is longer than the block */
+        assertFalse(BinarySniffer.isBinary(zip, 2, UTF_8));
+    }
+
+    @Test
+    public void randomBytes() {
+        byte[] block = new byte[BinarySniffer.BLOCK_SIZE];
+        new Random(1).nextBytes(block);
+        assertTrue(BinarySniffer.isBinary(block, block.length, UTF_8));
+        
+        byte[] nuls = "a\0\0\0b\0\0\0".getBytes(ISO_8859_1);
+        assertTrue(BinarySniffer.isBinary(nuls, nuls.length, ISO_8859_1));
+        assertFalse(BinarySniffer.isBinary(nuls, nuls.length, UTF_16));
+    }
+
+    private void checkText(byte[] bytes, Charset charset) {
+        assertFalse(BinarySniffer.isBinary(bytes, bytes.length, charset));
+    }
+}
@@ -0,0 +1,56 @@
+package dmv.desktop.searchandreplace.service;
+
+import static java.nio.charset.StandardCharsets.*;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+
+public class CharsetCodersTest {
+
+    @Test
+    public void coders() {
+        assertThat(CharsetCoders.decoder(UTF_8), is(sameInstance(CharsetCoders.decoder(UTF_8))));
+        assertThat(CharsetCoders.encoder(UTF_16), is(sameInstance(CharsetCoders.encoder(UTF_16))));
+        assertThat(CharsetCoders.decoder(UTF_8).charset(), is(UTF_8));
+        assertThat(CharsetCoders.decoder(ISO_8859_1).charset(), is(ISO_8859_1));
+    }
+
+    @Test
+    public void encode() throws CharacterCodingException {
+        String text = "Some ünïcödé text";
+        for (int i = 0; i < 3; i++) {
+            assertThat(bytes(CharsetCoders.encode(text, UTF_8)), is(text.getBytes(UTF_8)));
+            assertThat(bytes(CharsetCoders.encode(text, UTF_16)), is(text.getBytes(UTF_16)));
+        }
+        /* bigger than a pooled buffer */
+        char[] big = new char[CharsetCoders.POOLED_LIMIT * 2];
+        Arrays.fill(big, 'ü');
+        assertThat(CharsetCoders.encode(new String(big), UTF_8).remaining(), is(big.length * 2));
+        assertThat(bytes(CharsetCoders.encode(text, UTF_8)), is(text.getBytes(UTF_8)));
+    }
+
+    @Test(expected=CharacterCodingException.class)
+    public void unmappable() throws CharacterCodingException {
+        CharsetCoders.encode("€", ISO_8859_1);
+    }
+
+    @Test
+    public void chars() {
+        assertThat(CharsetCoders.chars(10).remaining() >= 10, is(true));
+        assertThat(CharsetCoders.chars(100_000).capacity() >= 100_000, is(true));
+        assertThat(CharsetCoders.chars(10), is(sameInstance(CharsetCoders.chars(10))));
+    }
+
+    private static byte[] bytes(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return bytes;
+    }
+}
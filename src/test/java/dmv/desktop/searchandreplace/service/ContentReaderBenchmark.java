@@ -0,0 +1,86 @@
+package dmv.desktop.searchandreplace.service;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/*
+ * Bytes allocated by the calling thread per file read, it is excluded 
+ * from the build, run it explicitly: mvn test -Dtest=ContentReaderBenchmark
+ */
+public class ContentReaderBenchmark {
+
+    private static final int FILES = 2_000;
+    private static final int RUNS = 5;
+    private static final Charset CHARSET = StandardCharsets.UTF_8;
+
+    private static Path folder;
+    private static List<Path> tiny;
+    private static List<Path> small;
+    private static List<Path> large;
+
+    @BeforeClass
+    public static void init() throws IOException {
+        folder = Files.createTempDirectory("reads");
+        tiny = writeFiles("tiny", FILES, 2_000);
+        small = writeFiles("small", FILES, 60_000);
+        large = writeFiles("large", 20, 1_000_000);
+    }
+
+    @AfterClass
+    public static void shutdown() throws IOException {
+        for (Path file : Files.newDirectoryStream(folder)) Files.delete(file);
+        Files.delete(folder);
+    }
+
+    @Test
+    public void allocations() throws IOException {
+        /* large files are read in chunks */
+        ContentReader reader = new ContentReader(new SearchStatistics(), 8 << 10, 512 << 10);
+        report("tiny (2KB, WHOLE)", reader, tiny);
+        report("small (60KB, BUFFERED)", reader, small);
+        report("large (1MB, CHUNKED)", reader, large);
+    }
+
+    private static void report(String name, ContentReader reader, 
+                               List<Path> files) throws IOException {
+        long best = Long.MAX_VALUE;
+        for (int run = 0; run < RUNS; run++) {
+            long before = allocatedBytes();
+            for (Path file : files)
+                reader.read(file, null, CHARSET);
+            best = Math.min(best, allocatedBytes() - before);
+        }
+        System.out.printf("%-24s %,10d bytes allocated per file of %,d bytes%n", 
+                          name, best / files.size(), Files.size(files.get(0)));
+    }
+
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean())
+                      .getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    private static List<Path> writeFiles(String prefix, int number, 
+                                         int lineLength) throws IOException {
+        char[] line = new char[lineLength];
+        Arrays.fill(line, 'a');
+        List<Path> files = new ArrayList<>();
+        for (int i = 0; i < number; i++) {
+            Path file = folder.resolve(prefix + i + ".txt");
+            Files.write(file, Collections.singletonList(new String(line)), CHARSET);
+            files.add(file);
+        }
+        return files;
+    }
+}
@@ -0,0 +1,152 @@
+package dmv.desktop.searchandreplace.service;
+
+import static java.nio.charset.StandardCharsets.*;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.MalformedInputException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+
+public class ContentReaderTest {
+    
+    private SearchStatistics statistics;
+    private Path file;
+    
+    @Before
+    public void setUp() throws IOException {
+        statistics = new SearchStatistics();
+        file = Files.createTempFile("reader", ".txt");
+    }
+    
+    @After
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Test
+    public void select() {
+        ContentReader reader = new ContentReader(statistics, 10, 100);
+        assertThat(reader.select(0), is(ReadStrategy.WHOLE));
+        assertThat(reader.select(10), is(ReadStrategy.WHOLE));
+        assertThat(reader.select(11), is(ReadStrategy.BUFFERED));
+        assertThat(reader.select(100), is(ReadStrategy.CHUNKED));
+        assertThat(statistics.getTinyLimit(), is(10L));
+        assertThat(statistics.getLargeLimit(), is(100L));
+        
+        reader = new ContentReader(statistics, 0, 0);
+        assertThat(reader.select(0), is(ReadStrategy.WHOLE));
+        assertThat(reader.select(1), is(ReadStrategy.CHUNKED));
+    }
+    
+    @Test(expected=IllegalArgumentException.class)
+    public void wrongLimits() {
+        new ContentReader(statistics, 100, 10);
+    }
+
+    @Test
+    public void strategies() throws IOException {
+        /* multi-byte characters cross buffers and chunks boundaries */
+        char[] chars = new char[100_000];
+        Arrays.fill(chars, 'é');
+        String text = "start\r\n" + new String(chars) + "\nend";
+        checkRead(text, UTF_8, 1 << 20, 1 << 20, ReadStrategy.WHOLE);
+        checkRead(text, UTF_8, 0, 1 << 20, ReadStrategy.BUFFERED);
+        checkRead(text, UTF_8, 0, 0, ReadStrategy.CHUNKED);
+        checkRead(text, UTF_16, 0, 0, ReadStrategy.CHUNKED);
+        checkRead("", UTF_8, 0, 0, ReadStrategy.WHOLE);
+    }
+
+    @Test
+    public void changedFile() throws IOException {
+        Files.write(file, "small".getBytes(UTF_8));
+        BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        byte[] bigger = new byte[BinarySniffer.BLOCK_SIZE * 3];
+        Arrays.fill(bigger, (byte) 'a');
+        Files.write(file, bigger);
+        
+        ContentReader reader = new ContentReader(statistics, 0, 1 << 20);
+        assertThat(reader.read(file, attributes, UTF_8).length(), is(bigger.length));
+        assertThat(statistics.getBytesRead(ReadStrategy.BUFFERED), is((long) bigger.length));
+    }
+
+    @Test
+    public void binary() throws IOException {
+        byte[] bytes = new byte[BinarySniffer.BLOCK_SIZE * 2];
+        bytes[0] = 'a';
+        Files.write(file, bytes);
+        assertThat(new ContentReader(statistics, 0, 0).read(file, null, UTF_8), is(nullValue()));
+        assertThat(statistics.getBytesSaved(), is((long) BinarySniffer.BLOCK_SIZE));
+        assertThat(new ContentReader(statistics).read(file, null, UTF_8), is(nullValue()));
+        assertThat(new ContentReader(statistics, 1 << 20, 1 << 20).read(file, null, UTF_8), 
+                   is(nullValue()));
+        assertThat(statistics.getSkippedFiles(), is(3L));
+        assertThat(statistics.getBytesSaved(), is(BinarySniffer.BLOCK_SIZE * 2L));
+    }
+    
+    @Test
+    public void prefilter() throws IOException {
+        SwarMatcher prefilter = new SwarMatcher("needle".getBytes(UTF_8));
+        byte[] bytes = new byte[BinarySniffer.BLOCK_SIZE * 2];
+        Arrays.fill(bytes, (byte) 'a');
+        bytes[bytes.length - 2] = (byte) 0xC3;
+        bytes[bytes.length - 1] = (byte) 0xA9;
+        Files.write(file, bytes);
+        List<ContentReader> readers = Arrays.asList(new ContentReader(statistics),
+                                                    new ContentReader(statistics, 0, 1 << 20));
+        for (ContentReader reader : readers)
+            assertThat(reader.read(file, null, UTF_8, null, prefilter), is(nullValue()));
+        assertThat(statistics.getFilesNotDecoded(), is(2L));
+        assertThat(statistics.getSkippedFiles(), is(0L));
+        
+        /* malformed content is reported even though it is not decoded */
+        bytes[bytes.length - 1] = 'a';
+        Files.write(file, bytes);
+        for (ContentReader reader : readers) {
+            try {
+                reader.read(file, null, UTF_8, null, prefilter);
+                fail("malformed input is not reported");
+            } catch (MalformedInputException e) {}
+        }
+        assertThat(statistics.getFilesNotDecoded(), is(2L));
+        
+        bytes[bytes.length - 2] = 'a';
+        System.arraycopy("needle".getBytes(UTF_8), 0, bytes, bytes.length - 7, 6);
+        Files.write(file, bytes);
+        assertThat(new ContentReader(statistics).read(file, null, UTF_8, null, prefilter)
+                                                .endsWith("needlea"), is(true));
+        assertThat(statistics.getFilesNotDecoded(), is(2L));
+    }
+    
+    @Test(expected=MalformedInputException.class)
+    public void malformed() throws IOException {
+        byte[] bytes = new byte[BinarySniffer.BLOCK_SIZE * 2];
+        Arrays.fill(bytes, (byte) 'a');
+        bytes[bytes.length - 1] = (byte) 0xC3;
+        Files.write(file, bytes);
+        new ContentReader(statistics, 0, 0).read(file, null, UTF_8);
+    }
+
+    private void checkRead(String text, Charset charset, long tinyLimit, long largeLimit,
+                           ReadStrategy strategy) throws IOException {
+        byte[] bytes = text.getBytes(charset);
+        Files.write(file, bytes);
+        statistics.reset();
+        ContentReader reader = new ContentReader(statistics, tinyLimit, largeLimit);
+        assertThat(reader.read(file, null, charset), is(text));
+        assertThat(statistics.getFilesRead(strategy), is(1L));
+        assertThat(statistics.getBytesRead(strategy), is((long) bytes.length));
+    }
+}
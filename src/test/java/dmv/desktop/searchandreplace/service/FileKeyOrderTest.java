@@ -0,0 +1,59 @@
+package dmv.desktop.searchandreplace.service;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+
+public class FileKeyOrderTest {
+
+    @Test
+    public void unixKeys() {
+        BasicFileAttributes first = attributes("(dev=803,ino=99)");
+        BasicFileAttributes second = attributes("(dev=803,ino=1234)");
+        BasicFileAttributes third = attributes("(dev=a00,ino=5)");
+        List<BasicFileAttributes> files = Arrays.asList(third, second, first);
+        files.sort(FileKeyOrder.INSTANCE);
+        assertThat(files, is(Arrays.asList(first, second, third)));
+    }
+
+    @Test
+    public void comparableKeys() {
+        BasicFileAttributes first = attributes(1L);
+        BasicFileAttributes second = attributes(20L);
+        assertThat(FileKeyOrder.INSTANCE.compare(second, first) > 0, is(true));
+        assertThat(FileKeyOrder.INSTANCE.compare(first, attributes(1L)), is(0));
+    }
+
+    @Test
+    public void unknownKeysAreLast() {
+        BasicFileAttributes known = attributes("(dev=1,ino=1)");
+        BasicFileAttributes unknown = attributes(new Object());
+        BasicFileAttributes none = attributes(null);
+        assertThat(FileKeyOrder.INSTANCE.compare(known, unknown) < 0, is(true));
+        assertThat(FileKeyOrder.INSTANCE.compare(known, none) < 0, is(true));
+        assertThat(FileKeyOrder.INSTANCE.compare(unknown, none) < 0, is(true));
+        assertThat(FileKeyOrder.INSTANCE.compare(none, null), is(0));
+        assertThat(FileKeyOrder.INSTANCE.compare(unknown, attributes(new Object())), is(0));
+    }
+
+    private BasicFileAttributes attributes(Object key) {
+        return new BasicFileAttributes() {
+            @Override public FileTime lastModifiedTime() { return null; }
+            @Override public FileTime lastAccessTime() { return null; }
+            @Override public FileTime creationTime() { return null; }
+            @Override public boolean isRegularFile() { return true; }
+            @Override public boolean isDirectory() { return false; }
+            @Override public boolean isSymbolicLink() { return false; }
+            @Override public boolean isOther() { return false; }
+            @Override public long size() { return 0; }
+            @Override public Object fileKey() { return key; }
+        };
+    }
+}
@@ -1,7 +1,14 @@
 package dmv.desktop.searchandreplace.service;
 
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
 
 import org.junit.Test;
 
@@ -21,6 +28,47 @@ public class FileReplacerImplTest extends FileReplacerTest {
         return true;
     }
 
+    @Test
+    public void spliceLargeFile() throws IOException {
+        Path file = Files.createTempFile("splice", ".txt");
+        try {
+            Files.write(file, "Größe FindMe\nFindMe 𝄞\n".getBytes(StandardCharsets.UTF_8));
+            SearchProfile profile = SearchProfileImpl.getBuilder("FindMe")
+                                                     .setReplaceWith("ß")
+                                                     .setCharset(StandardCharsets.UTF_8)
+                                                     .build();
+            /* every file is a large one */
+            FileReplacer replacer = new FileReplacerImpl(
+                    file, Files.readAttributes(file, BasicFileAttributes.class),
+                    profile, new ContentReader(new SearchStatistics(), 0, 0));
+            assertThat(replacer.writeResult().numberOfModificationsMade(), is(2));
+            assertThat(new String(Files.readAllBytes(file), StandardCharsets.UTF_8), 
+                       is("Größe ß\nß 𝄞\n"));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void searchLines() throws IOException {
+        Path file = Files.createTempFile("lines", ".txt");
+        try {
+            /* lines are searched within the whole text, words don't cross lines */
+            Files.write(file, "ab FindMe FindMe\nnone\n\nFindMeFind\nMe FindMe\r\nx"
+                                    .getBytes(StandardCharsets.UTF_8));
+            SearchProfile profile = SearchProfileImpl.getBuilder("FindMe")
+                                                     .setReplaceWith("R")
+                                                     .setCharset(StandardCharsets.UTF_8)
+                                                     .build();
+            FileReplacer replacer = new FileReplacerImpl(file, profile);
+            assertThat(replacer.writeResult().numberOfModificationsMade(), is(4));
+            assertThat(new String(Files.readAllBytes(file), StandardCharsets.UTF_8), 
+                       is("ab R R\nnone\n\nRFind\nMe R\r\nx"));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
     @Test(expected=NullPointerException.class)
     public void constructorNullFile() {
         new FileReplacerImpl(null, SearchProfileImpl.getBuilder("res").build());
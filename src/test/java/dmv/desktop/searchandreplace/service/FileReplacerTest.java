@@ -15,10 +15,14 @@ import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.stream.Collectors;
 
 import org.junit.*;
@@ -45,7 +49,7 @@ public abstract class FileReplacerTest {
     private static Path readOnly = Paths.get("src/test/resources/replacertest/readOnly.txt");
     private static Path nonReadable = Paths.get("src/test/resources/replacertest/nonReadable.txt");
     private static Path notExisting = Paths.get("src/test/resources/replacertest/notExisting.txt");
-    /* new random filename in case of collisions (is not yet known) */
+    /* new filename in case of collisions (suffix is added before extension) */
     private static Path newName;
     /* This block of variables is not for changes */
     private static List<String> origContent1;
@@ -353,8 +357,9 @@ public abstract class FileReplacerTest {
         // reset status (we have original file recreated)
         target2.setFile(file2);
         SearchResult result = target2.writeResult();
-        // I don't know what new random name will be created in this case
+        // the first free name with suffix is taken
         newName = result.getModifiedName().getLast();
+        assertThat(newName, is(Paths.get("src/test/resources/replacertest/file2_1.txt")));
         checkResultExpect(result, modContent2, newName, modifications2, false, null);
         readAndCheckContent(newName, target2, true);
         // try to change profile 
@@ -448,6 +453,212 @@ public abstract class FileReplacerTest {
         assertThat(target1.getResult().getModifiedContent(), is(Arrays.asList(tuple)));
     }
     
+    @Test
+    public void correctRegex() throws IOException {
+        profile = profile.setToFind("(\\w+)\\((\\d*)\\)")
+                         .setReplaceWith("$1[$2]")
+                         .setRegex(true);
+        target1.setProfile(profile);
+        Tuple<String, String> tuple = new TupleImpl<>("call(1) and get(), skip (2) and x(y)", 
+                                                      "call[1] and get[], skip (2) and x(y)");
+        Files.write(file1, Arrays.asList(tuple.getFirst()), TRUNCATE_EXISTING);
+        assertThat(target1.getResult().getModifiedContent(), is(Arrays.asList(tuple)));
+        assertThat(target1.getResult().numberOfModificationsMade(), is(2));
+        
+        /* Replacements are recomputed for cached content */
+        if (isContentCached()) {
+            target1.setProfile(profile.setReplaceWith("$2"));
+            assertThat(target1.getState(), is(FIND_OTHER));
+            tuple = new TupleImpl<>(tuple.getFirst(), "1 and , skip (2) and x(y)");
+            assertThat(target1.getResult().getModifiedContent(), is(Arrays.asList(tuple)));
+            
+            target1.setProfile(profile.setRegex(false));
+            assertFalse(target1.hasReplacements());
+        }
+    }
+    
+    @Test
+    public void multiline() throws IOException {
+        profile = profile.setToFind("FindMe\nnext")
+                         .setReplaceWith("one")
+                         .setMultiline(true);
+        target1.setProfile(profile);
+        Files.write(file1, "first\r\nFindMe\nnext FindMe\nnext\nlast\n".getBytes(charset), 
+                    TRUNCATE_EXISTING);
+        assertThat(target1.getResult().getModifiedContent(), 
+                   is(Arrays.asList(new TupleImpl<>("first", null),
+                                    new TupleImpl<>("FindMe\nnext FindMe\nnext", "one one"),
+                                    new TupleImpl<>("last", null))));
+        assertThat(target1.getResult().numberOfModificationsMade(), is(2));
+        
+        /* line by line search can't find line separators */
+        target1.setProfile(profile.setMultiline(false));
+        assertThat(target1.getState(), is(BEFORE_FIND));
+        assertFalse(target1.hasReplacements());
+        
+        /* anchors match at line boundaries */
+        target1.setProfile(profile.setToFind("^n\\w+$").setRegex(true));
+        assertThat(target1.getResult().getModifiedContent().get(3), 
+                   is(new TupleImpl<>("next", "one")));
+    }
+    
+    @Test
+    public void keepLineSeparators() throws IOException {
+        String content = "FindMe\r\n\r\nline FindMe\rlast FindMe";
+        Files.write(file1, content.getBytes(charset), TRUNCATE_EXISTING);
+        assertThat(target1.writeResult().numberOfModificationsMade(), is(3));
+        assertThat(new String(Files.readAllBytes(file1), charset), 
+                   is(content.replace(toFind, replaceWith)));
+        
+        target1 = createTarget(file1, profile.setToFind("Replaced\r\n")
+                                             .setReplaceWith("")
+                                             .setMultiline(true));
+        assertThat(target1.writeResult().numberOfModificationsMade(), is(1));
+        assertThat(new String(Files.readAllBytes(file1), charset), 
+                   is("\r\nline Replaced\rlast Replaced"));
+    }
+    
+    @Test
+    public void exclusionsWithinLines() throws IOException {
+        Files.write(file1, "FindMe\r\nFindMe x\nxFindMe".getBytes(charset), TRUNCATE_EXISTING);
+        assertThat(target1.getResult().numberOfModificationsMade(), is(3));
+        
+        /* cached content is checked again, line by line */
+        target1.setProfile(profile.setExclusions(
+                new ExclusionsTrie(Arrays.asList("x"), Arrays.asList("\r\nF", " x"), false)));
+        assertThat(target1.getState(), is(EXCLUDE_OTHER));
+        assertThat(target1.getResult().getModifiedContent(), 
+                   is(Arrays.asList(new TupleImpl<>("FindMe", replaceWith),
+                                    new TupleImpl<>("FindMe x", null),
+                                    new TupleImpl<>("xFindMe", null))));
+        assertThat(target1.getResult().numberOfModificationsMade(), is(1));
+    }
+    
+    @Test
+    public void skipBinary() throws IOException {
+        byte[] binary = new byte[BinarySniffer.BLOCK_SIZE * 2];
+        new Random(1).nextBytes(binary);
+        byte[] found = toFind.getBytes(charset);
+        System.arraycopy(found, 0, binary, binary.length - found.length, found.length);
+        Files.write(file2, binary, TRUNCATE_EXISTING);
+        
+        /* binary file may be renamed, but its content is intact */
+        SearchResult result = target2.writeResult();
+        assertThat(result.numberOfModificationsMade(), is(1));
+        assertThat(result.getModifiedName().getLast(), is(file2Renamed));
+        assertThat(Files.readAllBytes(file2Renamed), is(binary));
+        Files.delete(file2Renamed);
+        
+        Files.write(file1, binary, TRUNCATE_EXISTING);
+        assertFalse(target1.hasReplacements());
+        assertThat(target1.getState(), is(AFTER_FOUND));
+    }
+    
+    @Test
+    public void skipWithoutFound() throws IOException {
+        byte[] content = "no such words\nhere\n".getBytes(charset);
+        Files.write(file2, content, TRUNCATE_EXISTING);
+        Files.deleteIfExists(file2Renamed);
+        
+        /* content is not decoded, but file may be renamed */
+        SearchResult result = target2.writeResult();
+        assertThat(result.numberOfModificationsMade(), is(1));
+        assertThat(Files.readAllBytes(file2Renamed), is(content));
+        Files.delete(file2Renamed);
+        
+        /* other pattern may be found in the same file */
+        Files.write(file1, content, TRUNCATE_EXISTING);
+        assertFalse(target1.hasReplacements());
+        target1.setProfile(profile.setToFind("here"));
+        assertThat(target1.getState(), is(BEFORE_FIND));
+        assertThat(target1.getResult().getModifiedContent(), 
+                   is(Arrays.asList(new TupleImpl<>("no such words", null),
+                                    new TupleImpl<>("here", replaceWith))));
+    }
+    
+    @Test
+    public void namesOnly() throws IOException {
+        Files.deleteIfExists(file2Renamed);
+        byte[] content = Files.readAllBytes(file2);
+        target2.setProfile(profile.setReplaceWith("").setFilename(true).setContent(false));
+        assertThat(target2.getState(), is(BEFORE_FIND));
+        
+        /* file is renamed, its content is left as it is */
+        SearchResult result = target2.writeResult();
+        assertThat(result.numberOfModificationsMade(), is(1));
+        assertThat(Files.readAllBytes(file2Renamed), is(content));
+        Files.delete(file2Renamed);
+        
+        target1.setProfile(profile.setContent(false));
+        assertFalse(target1.hasReplacements());
+        target1.setProfile(profile);
+        assertThat(target1.getState(), is(BEFORE_FIND));
+        assertTrue(target1.hasReplacements());
+    }
+    
+    @Test
+    public void preloadedContent() throws IOException {
+        byte[] content = "first\nsecond FindMe\n".getBytes(charset);
+        target1.setFile(file1, null, ByteBuffer.wrap(content));
+        assertThat(target1.getResult().getModifiedContent(), 
+                   is(Arrays.asList(new TupleImpl<>("first", null),
+                                    new TupleImpl<>("second FindMe", "second " + replaceWith))));
+        
+        /* the file itself is read next time */
+        target1.setProfile(profile.setCharset(StandardCharsets.ISO_8859_1));
+        assertThat(target1.getResult().getModifiedContent(), is(modContent1));
+    }
+    
+    @Test
+    public void fileAttributes() throws IOException {
+        assertThat(target1.getAttributes(), is(nullValue()));
+        BasicFileAttributes attributes = Files.readAttributes(file1, BasicFileAttributes.class);
+        
+        /* file has grown since its attributes were read */
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) lines.add("line " + toFind + " " + i);
+        Files.write(file1, lines, TRUNCATE_EXISTING);
+        
+        target1.setFile(file1, attributes);
+        assertThat(target1.getAttributes(), is(attributes));
+        SearchResult result = target1.getResult();
+        assertThat(result.numberOfModificationsMade(), is(lines.size()));
+        assertThat(result.getModifiedContent().get(lines.size() - 1).getLast(), 
+                   is("line " + replaceWith + " 999"));
+    }
+    
+    @Test
+    public void parallelScan() throws IOException {
+        Random rand = new Random(1);
+        char[] chars = new char[5000];
+        for (int i = 0; i < chars.length; i++) chars[i] = "aab\n".charAt(rand.nextInt(4));
+        Files.write(file1, new String(chars).getBytes(charset), TRUNCATE_EXISTING);
+        ExecutorService exec = Executors.newFixedThreadPool(2);
+        try {
+            ParallelScanner scanner = new ParallelScanner(exec, 1, 7);
+            for (boolean multiline : new boolean[]{false, true}) {
+                checkParallelScan(profile.setToFind("aa").setMultiline(multiline), scanner);
+                checkParallelScan(profile.setToFind("ab\na").setMultiline(multiline), scanner);
+                checkParallelScan(profile.setToFind("a+\n?b?").setRegex(true)
+                                         .setMultiline(multiline), scanner);
+                checkParallelScan(profile.setToFind("(?<=b)a").setRegex(true)
+                                         .setMultiline(multiline), scanner);
+            }
+        } finally {
+            exec.shutdown();
+        }
+    }
+    
+    private void checkParallelScan(SearchProfile profile, ParallelScanner scanner) {
+        FileReplacer sequential = createTarget(file1, profile);
+        FileReplacer parallel = createTarget(file1, profile);
+        parallel.setScanner(scanner);
+        SearchResult expected = sequential.getResult();
+        assertThat(parallel.getResult().numberOfModificationsMade(), 
+                   is(expected.numberOfModificationsMade()));
+        assertThat(parallel.getResult().getModifiedContent(), is(expected.getModifiedContent()));
+    }
+    
     @Test
     public void getRandomResult() throws IOException {
         List<Tuple<String, String>> randomContent;
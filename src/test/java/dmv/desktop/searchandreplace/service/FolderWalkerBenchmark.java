@@ -0,0 +1,116 @@
+package dmv.desktop.searchandreplace.service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import dmv.desktop.searchandreplace.model.SearchPath;
+import dmv.desktop.searchandreplace.model.SearchPathImpl;
+import dmv.desktop.searchandreplace.model.SearchProfile;
+import dmv.desktop.searchandreplace.model.SearchProfileImpl;
+
+/*
+ * Wall-clock measurements of FolderWalker settings on generated trees,
+ * it is excluded from the build (as well as FolderWalkerMultiTest), 
+ * run it explicitly: mvn test -Dtest=FolderWalkerBenchmark
+ */
+public class FolderWalkerBenchmark {
+
+    private static final int UNITS = Runtime.getRuntime().availableProcessors();
+    private static final int RUNS = 5;
+    private static final String TO_FIND = "Find me";
+    
+    private static ExecutorService exec;
+    private static Path skewedTree;
+    private static Path tinyTree;
+    private static SearchProfile profile;
+
+    @BeforeClass
+    public static void init() throws IOException {
+        exec = Executors.newFixedThreadPool(UNITS);
+        profile = SearchProfileImpl.getBuilder(TO_FIND)
+                                   .setReplaceWith("replaced")
+                                   .setCharset(StandardCharsets.UTF_8)
+                                   .build();
+        /* a few huge files among many small ones */
+        skewedTree = Files.createTempDirectory("skewed");
+        for (int i = 0; i < UNITS * 200; i++)
+            writeFile(skewedTree.resolve("small" + i + ".txt"), 200);
+        for (int i = 0; i < 2; i++)
+            writeFile(skewedTree.resolve("huge" + i + ".txt"), 400_000);
+        /* sub-4KB files only */
+        tinyTree = Files.createTempDirectory("tiny");
+        for (int i = 0; i < 20_000; i++)
+            writeFile(tinyTree.resolve("tiny" + i + ".txt"), 20);
+    }
+
+    @AfterClass
+    public static void shutdown() throws IOException {
+        exec.shutdown();
+        remove(skewedTree);
+        remove(tinyTree);
+    }
+
+    @Test
+    public void schedulingPolicies() {
+        SearchPath folder = SearchPathImpl.getBuilder(skewedTree)
+                                          .setNamePattern("**.txt")
+                                          .build();
+        for (SchedulingPolicy policy : SchedulingPolicy.values()) {
+            long best = Long.MAX_VALUE;
+            for (int run = 0; run < RUNS; run++) {
+                FolderWalker walker = new FolderWalker(folder, profile);
+                walker.setSchedulingPolicy(policy);
+                /* huge files are not split to show the schedule effect */
+                walker.setScanLimits(Integer.MAX_VALUE, ParallelScanner.DEFAULT_REGION_SIZE);
+                long start = System.nanoTime();
+                walker.preview(exec);
+                best = Math.min(best, System.nanoTime() - start);
+            }
+            System.out.printf("%s: best of %s runs %s ms%n", policy, RUNS, best / 1_000_000);
+        }
+    }
+
+    @Test
+    public void batches() {
+        SearchPath folder = SearchPathImpl.getBuilder(tinyTree)
+                                          .setNamePattern("**.txt")
+                                          .build();
+        for (int batchFiles : new int[]{1, 16, 64, 256}) {
+            long best = Long.MAX_VALUE;
+            for (int run = 0; run < RUNS; run++) {
+                FolderWalker walker = new FolderWalker(folder, profile);
+                if (batchFiles > 1) 
+                    walker.setBatchLimits(4096, batchFiles, FolderWalker.DEFAULT_BATCH_BYTES);
+                long start = System.nanoTime();
+                walker.preview(exec);
+                best = Math.min(best, System.nanoTime() - start);
+            }
+            System.out.printf("%s files per task: best of %s runs %s ms%n", 
+                              batchFiles, RUNS, best / 1_000_000);
+        }
+    }
+
+    private static void remove(Path tree) throws IOException {
+        List<Path> paths = new ArrayList<>();
+        Files.walk(tree).forEach(paths::add);
+        paths.sort(Comparator.reverseOrder());
+        for (Path path : paths) Files.delete(path);
+    }
+
+    private static void writeFile(Path file, int lines) throws IOException {
+        Files.write(file, Collections.nCopies(lines, "Some text line to " + TO_FIND + " in"), 
+                    StandardCharsets.UTF_8);
+    }
+}
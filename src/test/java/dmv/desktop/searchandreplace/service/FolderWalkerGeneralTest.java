@@ -16,9 +16,13 @@ import static org.junit.Assert.fail;
 
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
 import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.junit.*;
 
@@ -243,6 +247,318 @@ public class FolderWalkerGeneralTest extends FolderWalkerTest {
         assertThat(filesCounter, is(filesNumber * 2));
     }
 
+    @Test
+    public void skipBinaries() throws IOException {
+        byte[] binary = new byte[BinarySniffer.BLOCK_SIZE * 3];
+        new Random(1).nextBytes(binary);
+        byte[] found = toFind.getBytes(charset);
+        System.arraycopy(found, 0, binary, binary.length - found.length, found.length);
+        Files.write(subfolder1.resolve("binary.bin"), binary);
+        
+        FolderWalker walker = new FolderWalker(rootFolder = rootFolder.setSubfolders(true), profile);
+        walker.preview()
+              .forEach(result -> checkResult(result, rootFolder, profile));
+        assertThat(filesCounter, is(filesNumber * (subfoldersNumber + 1)));
+        assertThat(walker.getStatistics().getSkippedFiles(), is(1L));
+        assertThat(walker.getStatistics().getBytesSaved(), 
+                   is((long) binary.length - BinarySniffer.BLOCK_SIZE));
+    }
+
+    @Test
+    public void excludeFolders() {
+        rootFolder = rootFolder.setSubfolders(true)
+                               .setExcludeFolders(s1);
+        target = new FolderWalker(rootFolder, profile);
+        target.preview()
+              .forEach(result -> checkResult(result, rootFolder, profile));
+        /* subfolders of excluded folder are skipped as well */
+        assertThat(folderNames, is(new HashSet<>(Arrays.asList(s2))));
+        assertThat(filesCounter, is(filesNumber * 2));
+    }
+
+    @Test
+    public void gitignore() throws IOException {
+        Files.write(testFolder.resolve(".gitignore"), Arrays.asList("/" + s2 + "/", "test1.*"));
+        Files.write(subfolder1.resolve(".ignore"), Arrays.asList("!test1.txt"));
+        
+        rootFolder = rootFolder.setSubfolders(true);
+        target = new FolderWalker(rootFolder, profile);
+        assertThat(target.preview().size(), is(filesNumber * (subfoldersNumber + 1)));
+        
+        resetCounters();
+        target = new FolderWalker(rootFolder.setGitignore(true), profile);
+        target.preview()
+              .forEach(result -> checkResult(result, rootFolder, profile));
+        assertThat(folderNames, is(new HashSet<>(Arrays.asList(s1, s11))));
+        /* test1.txt is ignored in the root folder only, subfolder1 rules are inherited */
+        assertThat(filesCounter, is(filesNumber * 3 - 1));
+    }
+
+    @Test
+    public void largestFirst() throws IOException {
+        Files.write(subfolder2.resolve("big.txt"), Collections.nCopies(10000, toFind));
+        rootFolder = rootFolder.setSubfolders(true);
+        FolderWalker walker = new FolderWalker(rootFolder, profile);
+        List<SearchResult> walkOrder = walker.preview();
+        
+        walker = new FolderWalker(rootFolder, profile);
+        walker.setSchedulingPolicy(SchedulingPolicy.LARGEST_FIRST);
+        assertThat(walker.getSchedulingPolicy(), is(SchedulingPolicy.LARGEST_FIRST));
+        List<SearchResult> largestFirst = walker.preview();
+        /* results are in the same order whatever the schedule is */
+        assertThat(largestFirst.size(), is(walkOrder.size()));
+        for (int i = 0; i < walkOrder.size(); i++) {
+            assertThat(largestFirst.get(i).getModifiedName(), 
+                       is(walkOrder.get(i).getModifiedName()));
+            assertThat(largestFirst.get(i).numberOfModificationsMade(), 
+                       is(walkOrder.get(i).numberOfModificationsMade()));
+        }
+        /* cached files are processed in the same way */
+        walker.setProfile(profile.setReplaceWith("other"));
+        assertThat(walker.preview().size(), is(walkOrder.size()));
+    }
+    
+    @Test
+    public void fileKeyOrder() {
+        rootFolder = rootFolder.setSubfolders(true);
+        FolderWalker walker = new FolderWalker(rootFolder, profile);
+        List<SearchResult> walkOrder = walker.preview();
+        
+        walker = new FolderWalker(rootFolder, profile);
+        walker.setSchedulingPolicy(SchedulingPolicy.FILE_KEY_ORDER);
+        walker.setScheduleWindow(3);
+        assertThat(walker.getScheduleWindow(), is(3));
+        List<SearchResult> keyOrder = walker.preview();
+        assertThat(keyOrder.size(), is(walkOrder.size()));
+        for (int i = 0; i < walkOrder.size(); i++)
+            assertThat(keyOrder.get(i).getModifiedName(), 
+                       is(walkOrder.get(i).getModifiedName()));
+        walker.setProfile(profile.setReplaceWith("other"));
+        assertThat(walker.preview().size(), is(walkOrder.size()));
+    }
+    
+    @Test(expected=IllegalArgumentException.class)
+    public void wrongScheduleWindow() {
+        new FolderWalker(rootFolder, profile).setScheduleWindow(0);
+    }
+    
+    @Test
+    public void batches() throws IOException {
+        rootFolder = rootFolder.setSubfolders(true);
+        for (SchedulingPolicy policy : SchedulingPolicy.values()) {
+            resetCounters();
+            FolderWalker walker = new FolderWalker(rootFolder, profile);
+            walker.setSchedulingPolicy(policy);
+            walker.setBatchLimits(1 << 20, 2, 1 << 20);
+            walker.preview()
+                  .forEach(result -> checkResult(result, rootFolder, profile));
+            assertThat(filesCounter, is(filesNumber * (subfoldersNumber + 1)));
+            /* cached files are not batched */
+            walker.setProfile(profile.setReplaceWith("other"));
+            assertThat(walker.preview().size(), is(filesCounter));
+        }
+    }
+    
+    @Test
+    public void readLimiter() {
+        rootFolder = rootFolder.setSubfolders(true);
+        FolderWalker walker = new FolderWalker(rootFolder, profile);
+        ReadLimiter limiter = new ReadLimiter(1, 1, 4);
+        walker.setReadLimiter(limiter);
+        assertThat(walker.getReadLimiter(), is(limiter));
+        walker.preview()
+              .forEach(result -> checkResult(result, rootFolder, profile));
+        assertThat(filesCounter, is(filesNumber * (subfoldersNumber + 1)));
+        assertThat(limiter.getInFlight(), is(0));
+    }
+    
+    @Test
+    public void asyncReads() throws Exception {
+        rootFolder = rootFolder.setSubfolders(true);
+        for (int batch : new int[]{0, 1 << 20}) {
+            setUp();
+            FolderWalker walker = new FolderWalker(rootFolder.setSubfolders(true), profile);
+            walker.setAsyncReads(2);
+            assertThat(walker.getAsyncReads(), is(2));
+            walker.setBatchLimits(batch, 4, 1 << 20);
+            walker.replace()
+                  .forEach(result -> checkResult(result, rootFolder, profile));
+            assertThat(filesCounter, is(filesNumber * (subfoldersNumber + 1)));
+            assertTrue(walker.getStatistics().getFilesRead(ReadStrategy.ASYNC) > 0);
+        }
+    }
+    
+    @Test
+    public void namesOnly() throws IOException {
+        rootFolder = rootFolder.setSubfolders(true);
+        Path named = subfolder11.resolve("named " + toFind + ".txt");
+        Files.write(named, Arrays.asList(toFind, "other"));
+        byte[] content = Files.readAllBytes(named);
+        
+        FolderWalker walker = new FolderWalker(rootFolder, 
+                                               profile.setFilename(true).setContent(false));
+        List<SearchResult> results = walker.replace();
+        for (SearchResult result : results) {
+            Path renamed = result.getModifiedName().getLast();
+            assertThat(renamed.getFileName().toString().contains(toFind), is(false));
+            assertTrue(Files.exists(renamed));
+        }
+        assertTrue(Files.notExists(named));
+        assertThat(Files.readAllBytes(subfolder11.resolve("named " + replaceWith + ".txt")), 
+                   is(content));
+        /* files were not read */
+        for (ReadStrategy strategy : ReadStrategy.values())
+            assertThat(walker.getStatistics().getFilesRead(strategy), is(0L));
+        assertThat(walker.getStatistics().getSkippedFiles(), is(0L));
+    }
+    
+    @Test
+    public void folderNames() throws IOException {
+        rootFolder = rootFolder.setSubfolders(true);
+        Path outer = Files.createDirectory(subfolder11.resolve("dir " + toFind));
+        Path inner = Files.createDirectory(outer.resolve("inner " + toFind));
+        Files.write(inner.resolve("x " + toFind + ".txt"), Arrays.asList(toFind));
+        Path renamed = subfolder11.resolve("dir " + replaceWith);
+        try {
+            new FolderWalker(rootFolder, profile.setFilename(true).setFolderName(true))
+                    .replace();
+            assertTrue(Files.notExists(outer));
+            /* files were renamed first, then folders from the deepest one */
+            Path file = renamed.resolve("inner " + replaceWith)
+                               .resolve("x " + replaceWith + ".txt");
+            assertThat(Files.readAllLines(file), is(Arrays.asList(replaceWith)));
+        } finally {
+            for (Path dir : Arrays.asList(outer, renamed)) {
+                if (Files.notExists(dir)) continue;
+                try (Stream<Path> paths = Files.walk(dir)) {
+                    for (Path path : paths.sorted(Comparator.reverseOrder())
+                                          .collect(Collectors.toList()))
+                        Files.delete(path);
+                }
+            }
+        }
+    }
+    
+    @Test
+    public void folderNamesWithoutSubfolders() throws IOException {
+        Path outer = Files.createDirectory(rootFolder.getPath().resolve("dir " + toFind));
+        Path inner = Files.createDirectory(outer.resolve("inner " + toFind));
+        Path renamed = rootFolder.getPath().resolve("dir " + replaceWith);
+        try {
+            /* folder names follow the rule of file names */
+            new FolderWalker(rootFolder.setSubfolders(false), 
+                             profile.setFilename(false).setFolderName(true)).replace();
+            assertTrue(Files.exists(inner));
+            
+            new FolderWalker(rootFolder.setSubfolders(false), 
+                             profile.setFilename(true).setFolderName(true)).replace();
+            assertTrue(Files.notExists(outer));
+            /* folders which were not entered keep their content */
+            assertTrue(Files.isDirectory(renamed.resolve("inner " + toFind)));
+        } finally {
+            for (Path dir : Arrays.asList(outer, renamed)) {
+                if (Files.notExists(dir)) continue;
+                try (Stream<Path> paths = Files.walk(dir)) {
+                    for (Path path : paths.sorted(Comparator.reverseOrder())
+                                          .collect(Collectors.toList()))
+                        Files.delete(path);
+                }
+            }
+        }
+    }
+    
+    @Test
+    public void symbolicLinks() throws IOException {
+        char[] chars = new char[10_000];
+        Arrays.fill(chars, 'a');
+        Path big = Files.createTempFile("big", ".txt");
+        Files.write(big, Arrays.asList(new String(chars), toFind));
+        Path link = subfolder11.resolve("link.txt");
+        try {
+            Files.createSymbolicLink(link, big.toAbsolutePath());
+            FolderWalker walker = new FolderWalker(rootFolder.setSubfolders(true), profile);
+            walker.setReadLimits(100, 1000);
+            assertThat(walker.preview().stream()
+                             .filter(result -> link.equals(result.getModifiedName().getFirst()))
+                             .count(), is(1L));
+            /* target's size chooses the way of reading, not the link's one */
+            assertThat(walker.getStatistics().getFilesRead(ReadStrategy.CHUNKED), is(1L));
+        } finally {
+            Files.deleteIfExists(link);
+            Files.delete(big);
+        }
+    }
+    
+    @Test
+    public void splicedSymbolicLink() throws IOException {
+        char[] chars = new char[10_000];
+        Arrays.fill(chars, 'a');
+        Path big = Files.createTempFile("big", ".txt");
+        Files.write(big, Arrays.asList(new String(chars), toFind), StandardCharsets.UTF_8);
+        Path link = subfolder11.resolve("link.txt");
+        try {
+            Files.createSymbolicLink(link, big.toAbsolutePath());
+            FolderWalker walker = new FolderWalker(rootFolder.setSubfolders(true)
+                                                             .setNamePattern(new String[]{"**link.txt"}), 
+                                                   profile.setCharset(StandardCharsets.UTF_8));
+            walker.setReadLimits(100, 1000);
+            walker.replace();
+            assertThat(walker.getStatistics().getFilesRead(ReadStrategy.CHUNKED), is(1L));
+            /* link's target is spliced, the link is kept */
+            assertTrue(Files.isSymbolicLink(link));
+            assertThat(Files.readAllLines(big, StandardCharsets.UTF_8), 
+                       is(Arrays.asList(new String(chars), replaceWith)));
+        } finally {
+            Files.deleteIfExists(link);
+            Files.delete(big);
+        }
+    }
+    
+    @Test(expected=IllegalArgumentException.class)
+    public void wrongAsyncReads() {
+        new FolderWalker(rootFolder, profile).setAsyncReads(-1);
+    }
+    
+    @Test
+    public void filesWithoutReplacements() throws Exception {
+        rootFolder = rootFolder.setSubfolders(true);
+        for (int batch : new int[]{0, 1 << 20}) {
+            setUp();
+            List<Path> others = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                Path other = subfolder11.resolve("other" + i + ".txt");
+                Files.write(other, Arrays.asList("nothing", "to find"));
+                Files.setLastModifiedTime(other, FileTime.fromMillis(0));
+                others.add(other);
+            }
+            FolderWalker walker = new FolderWalker(rootFolder.setSubfolders(true), profile);
+            walker.setBatchLimits(batch, 4, 1 << 20);
+            walker.replace()
+                  .forEach(result -> checkResult(result, rootFolder, profile));
+            assertThat(filesCounter, is(filesNumber * (subfoldersNumber + 1)));
+            /* files with nothing to replace are not written */
+            for (Path other : others)
+                assertThat(Files.getLastModifiedTime(other).toMillis(), is(0L));
+        }
+    }
+    
+    @Test
+    public void throttle() {
+        rootFolder = rootFolder.setSubfolders(true);
+        FolderWalker walker = new FolderWalker(rootFolder, profile);
+        IoThrottle throttle = new IoThrottle(1 << 20, 1000);
+        walker.setThrottle(throttle);
+        assertThat(walker.getThrottle(), is(throttle));
+        walker.preview()
+              .forEach(result -> checkResult(result, rootFolder, profile));
+        assertThat(filesCounter, is(filesNumber * (subfoldersNumber + 1)));
+    }
+    
+    @Test(expected=IllegalArgumentException.class)
+    public void wrongBatchLimits() {
+        new FolderWalker(rootFolder, profile).setBatchLimits(10, 0, 10);
+    }
+    
     @Test
     public void subfoldersEnabledTXT() {
         includePaths = new String[]{"**test?.txt"};
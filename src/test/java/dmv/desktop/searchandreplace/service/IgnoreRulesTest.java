@@ -0,0 +1,58 @@
+package dmv.desktop.searchandreplace.service;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+
+public class IgnoreRulesTest {
+    
+    private Path root = Paths.get("root");
+    private Path sub = root.resolve("sub");
+
+    @Test
+    public void names() {
+        IgnoreRules rules = new IgnoreRules(null, root, 
+                Arrays.asList("# comment", "", "*.log", "!keep.log", "build/", "tmp?", "\\#hash"));
+        assertTrue(rules.isIgnored(sub.resolve("a.log"), false));
+        assertFalse(rules.isIgnored(sub.resolve("keep.log"), false));
+        assertTrue(rules.isIgnored(sub.resolve("build"), true));
+        assertFalse(rules.isIgnored(sub.resolve("build"), false));
+        assertTrue(rules.isIgnored(root.resolve("tmp1"), false));
+        assertFalse(rules.isIgnored(root.resolve("tmp12"), false));
+        assertTrue(rules.isIgnored(root.resolve("#hash"), false));
+        assertFalse(rules.isIgnored(root.resolve("# comment"), false));
+    }
+
+    @Test
+    public void anchored() {
+        IgnoreRules rules = new IgnoreRules(null, root, 
+                Arrays.asList("/target", "doc/*.html", "**/gen", "a/**/b", "{x}"));
+        assertTrue(rules.isIgnored(root.resolve("target"), true));
+        assertFalse(rules.isIgnored(sub.resolve("target"), true));
+        assertTrue(rules.isIgnored(root.resolve("doc/index.html"), false));
+        assertFalse(rules.isIgnored(root.resolve("doc/api/index.html"), false));
+        assertTrue(rules.isIgnored(root.resolve("gen"), true));
+        assertTrue(rules.isIgnored(sub.resolve("x/gen"), true));
+        assertTrue(rules.isIgnored(root.resolve("a/b"), true));
+        assertTrue(rules.isIgnored(root.resolve("a/x/y/b"), true));
+        assertTrue(rules.isIgnored(root.resolve("{x}"), false));
+    }
+
+    @Test
+    public void inherited() {
+        IgnoreRules parent = new IgnoreRules(null, root, Arrays.asList("*.txt", "/sub/own"));
+        IgnoreRules child = new IgnoreRules(parent, sub, Arrays.asList("!important.txt", "/own2"));
+        assertTrue(child.isIgnored(sub.resolve("a.txt"), false));
+        assertFalse(child.isIgnored(sub.resolve("important.txt"), false));
+        assertTrue(parent.isIgnored(root.resolve("important.txt"), false));
+        assertTrue(child.isIgnored(sub.resolve("own"), false));
+        assertTrue(child.isIgnored(sub.resolve("own2"), false));
+        assertFalse(parent.isIgnored(root.resolve("own2"), false));
+    }
+}
@@ -0,0 +1,90 @@
+package dmv.desktop.searchandreplace.service;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import java.io.InterruptedIOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+
+public class IoThrottleTest {
+
+    @Test
+    public void bytesRate() throws Exception {
+        IoThrottle throttle = new IoThrottle(1000, 0);
+        /* bucket is full at start */
+        assertTrue(millis(() -> throttle.acquire(1, 1000)) < 200);
+        long elapsed = millis(() -> throttle.acquire(1, 500));
+        assertTrue("elapsed " + elapsed, elapsed >= 400);
+    }
+
+    @Test
+    public void filesRate() throws Exception {
+        IoThrottle throttle = new IoThrottle(0, 20);
+        assertTrue(millis(() -> {
+            for (int i = 0; i < 20; i++) throttle.acquire(1, 1 << 20);
+        }) < 200);
+        long elapsed = millis(() -> {
+            for (int i = 0; i < 10; i++) throttle.acquire(1, 0);
+        });
+        assertTrue("elapsed " + elapsed, elapsed >= 400);
+    }
+
+    @Test
+    public void debt() throws Exception {
+        IoThrottle throttle = new IoThrottle(1000, 0);
+        /* bigger than the bucket, waits for it to be full only */
+        assertTrue(millis(() -> throttle.acquire(0, 1500)) < 200);
+        long elapsed = millis(() -> throttle.acquire(0, 100));
+        assertTrue("elapsed " + elapsed, elapsed >= 500);
+    }
+
+    @Test
+    public void changeRates() throws Exception {
+        IoThrottle throttle = new IoThrottle(100, 0);
+        throttle.acquire(0, 100);
+        CompletableFuture<Long> waiting = CompletableFuture.supplyAsync(() -> {
+            try {
+                return millis(() -> throttle.acquire(0, 100));
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        Thread.sleep(50);
+        throttle.setRates(0, 0);
+        assertTrue(waiting.get(500, TimeUnit.MILLISECONDS) < 500);
+        assertThat(throttle.getBytesPerSecond(), is(0L));
+        assertThat(throttle.getFilesPerSecond(), is(0L));
+    }
+
+    @Test(expected=InterruptedIOException.class)
+    public void interrupted() throws Exception {
+        IoThrottle throttle = new IoThrottle(1, 0);
+        throttle.acquire(0, 1);
+        Thread.currentThread().interrupt();
+        try {
+            throttle.acquire(0, 1);
+        } finally {
+            assertTrue(Thread.interrupted());
+        }
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void negativeRate() {
+        new IoThrottle(0, 0).setRates(-1, 0);
+    }
+
+    private interface Operation {
+        void run() throws Exception;
+    }
+
+    private static long millis(Operation operation) throws Exception {
+        long start = System.nanoTime();
+        operation.run();
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+}
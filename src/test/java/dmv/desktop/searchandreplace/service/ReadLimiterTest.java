@@ -0,0 +1,132 @@
+package dmv.desktop.searchandreplace.service;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+
+public class ReadLimiterTest {
+    
+    private ExecutorService exec;
+    
+    @Before
+    public void setUp() {
+        exec = Executors.newFixedThreadPool(8);
+    }
+    
+    @After
+    public void tearDown() {
+        exec.shutdown();
+    }
+
+    @Test
+    public void limit() throws Exception {
+        ReadLimiter limiter = new ReadLimiter(2, 2, 2);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        List<CompletableFuture<Integer>> futures = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            int read = i;
+            futures.add(limiter.submit(() -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                sleep(2);
+                running.decrementAndGet();
+                return read;
+            }, 0, exec));
+        }
+        for (int i = 0; i < futures.size(); i++)
+            assertThat(futures.get(i).get(), is(i));
+        assertThat(maxRunning.get(), is(2));
+        assertThat(limiter.getInFlight(), is(0));
+    }
+
+    @Test
+    public void increase() throws Exception {
+        ReadLimiter limiter = new ReadLimiter(1, 1, 8);
+        submitAll(limiter, 200, 2);
+        assertTrue(limiter.toString(), limiter.getLimit() > 1);
+    }
+
+    @Test
+    public void decrease() throws Exception {
+        ReadLimiter limiter = new ReadLimiter(8, 1, 8);
+        submitAll(limiter, 40, 1);
+        /* storage becomes overloaded */
+        submitAll(limiter, 40, 20);
+        assertTrue(limiter.toString(), limiter.getLimit() < 8);
+    }
+
+    @Test
+    public void reportedTime() throws Exception {
+        for (boolean report : new boolean[]{true, false}) {
+            ReadLimiter limiter = new ReadLimiter(2, 1, 2);
+            limiter.submit(() -> read(report, 0), 1 << 20, exec).get();
+            /* reads are as fast as before, but tasks are slow */
+            limiter.submit(() -> read(report, 50), 1 << 20, exec).get();
+            assertThat(limiter.getLimit(), is(report ? 2 : 1));
+        }
+        /* reports outside of tasks are ignored */
+        ReadLimiter.reportIoTime(1);
+    }
+
+    @Test
+    public void failures() throws Exception {
+        ReadLimiter limiter = new ReadLimiter(1, 1, 1);
+        CompletableFuture<Object> failed = limiter.submit(() -> {
+            throw new IllegalStateException();
+        }, 0, exec);
+        checkFailure(failed, IllegalStateException.class);
+        exec.shutdown();
+        checkFailure(limiter.submit(() -> 1, 0, exec), RejectedExecutionException.class);
+        assertThat(limiter.getInFlight(), is(0));
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void wrongLimits() {
+        new ReadLimiter(1, 2, 3);
+    }
+    
+    private void submitAll(ReadLimiter limiter, int reads, long millis) throws Exception {
+        List<CompletableFuture<Long>> futures = new ArrayList<>();
+        for (int i = 0; i < reads; i++)
+            futures.add(limiter.submit(() -> sleep(millis), 1 << 20, exec));
+        for (CompletableFuture<Long> future : futures) future.get();
+    }
+    
+    private void checkFailure(CompletableFuture<?> future, Class<?> cause) 
+                                                   throws InterruptedException {
+        try {
+            future.get();
+        } catch (ExecutionException e) {
+            assertThat(e.getCause().getClass(), is((Object) cause));
+        }
+        assertTrue(future.isCompletedExceptionally());
+    }
+    
+    private static long read(boolean report, long millis) {
+        if (report) ReadLimiter.reportIoTime(1_000_000);
+        return sleep(millis);
+    }
+    
+    private static long sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return millis;
+    }
+}
@@ -0,0 +1,124 @@
+package dmv.desktop.searchandreplace.service;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import dmv.desktop.searchandreplace.collection.TupleImpl;
+import dmv.desktop.searchandreplace.model.SearchResult;
+import dmv.desktop.searchandreplace.model.SearchResultImpl;
+
+
+public class RenamePlannerTest {
+
+    private Path folder;
+    private Path other;
+
+    @Before
+    public void setUp() throws IOException {
+        folder = Files.createTempDirectory("planner");
+        other = Files.createDirectory(folder.resolve("other"));
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        for (Path dir : new Path[]{other, folder}) {
+            for (Path file : Files.newDirectoryStream(dir))
+                if (!file.equals(other)) Files.delete(file);
+            Files.delete(dir);
+        }
+    }
+
+    @Test
+    public void rename() throws IOException {
+        Path aFind = Files.createFile(folder.resolve("aFind.txt"));
+        Path bFind = Files.createFile(folder.resolve("bFind.txt"));
+        Path cFind = Files.createFile(folder.resolve("cFind.txt"));
+        Path xFind = Files.createFile(other.resolve("xFind.txt"));
+        Files.createFile(folder.resolve("a.txt"));
+        Files.createFile(folder.resolve("a_1.txt"));
+        SearchResult notRenamed = SearchResultImpl.getBuilder()
+                                                  .setModifiedName(new TupleImpl<>(xFind, null))
+                                                  .setModifiedContent(Collections.emptyList())
+                                                  .build();
+        SearchResult renamedAsIs = result(xFind, other.resolve("x.txt"));
+        RenamePlanner planner = new RenamePlanner();
+
+        /* names are given in order of old paths, not of results */
+        List<SearchResult> results = planner.rename(Arrays.asList(result(cFind, bFind),
+                                                                  result(bFind, folder.resolve("a.txt")),
+                                                                  notRenamed,
+                                                                  result(aFind, folder.resolve("a.txt")),
+                                                                  renamedAsIs));
+        assertThat(newName(results.get(0)), is(folder.resolve("bFind_1.txt")));
+        assertThat(newName(results.get(1)), is(folder.resolve("a_3.txt")));
+        assertThat(results.get(2), is(sameInstance(notRenamed)));
+        assertThat(newName(results.get(3)), is(folder.resolve("a_2.txt")));
+        assertThat(results.get(4), is(sameInstance(renamedAsIs)));
+        for (Path file : Arrays.asList(aFind, bFind, cFind, xFind))
+            assertFalse(Files.exists(file));
+        for (String name : Arrays.asList("a.txt", "a_1.txt", "a_2.txt", "a_3.txt", "bFind_1.txt"))
+            assertTrue(Files.exists(folder.resolve(name)));
+        assertTrue(Files.exists(other.resolve("x.txt")));
+        /* each folder is listed once */
+        assertThat(planner.getListedFolders(), is(2));
+    }
+
+    @Test
+    public void failedRenames() throws IOException {
+        Path missing = folder.resolve("missing");
+        Path file = Files.createFile(folder.resolve("file.txt"));
+        List<SearchResult> results = new RenamePlanner().rename(
+                Arrays.asList(result(missing.resolve("a"), missing.resolve("b")),
+                              result(folder.resolve("gone.txt"), folder.resolve("new.txt")),
+                              result(file, folder.resolve("renamed.txt"))));
+        /* folder can't be listed, file can't be moved */
+        assertThat(results.get(0).getCause(), is(instanceOf(NoSuchFileException.class)));
+        assertThat(results.get(1).getCause(), is(instanceOf(NoSuchFileException.class)));
+        /* other files are renamed anyway */
+        assertFalse(results.get(2).isExceptional());
+        assertTrue(Files.exists(folder.resolve("renamed.txt")));
+    }
+
+    @Test
+    public void firstFree() {
+        assertThat(RenamePlanner.firstFree(folder.resolve("a.txt"), path -> false),
+                   is(folder.resolve("a.txt")));
+        assertThat(RenamePlanner.firstFree(folder.resolve("a.tar.gz"),
+                                           path -> path.endsWith("a.tar.gz")),
+                   is(folder.resolve("a.tar_1.gz")));
+        assertThat(RenamePlanner.firstFree(folder.resolve(".gitignore"),
+                                           path -> !path.endsWith(".gitignore_3")),
+                   is(folder.resolve(".gitignore_3")));
+        assertThat(RenamePlanner.firstFree(folder.resolve("dir"),
+                                           path -> path.endsWith("dir")),
+                   is(folder.resolve("dir_1")));
+    }
+
+    private static SearchResult result(Path file, Path newName) {
+        return SearchResultImpl.getBuilder()
+                               .setNumberOfModificationsMade(1)
+                               .setModifiedName(new TupleImpl<>(file, newName))
+                               .setModifiedContent(Collections.emptyList())
+                               .build();
+    }
+
+    private static Path newName(SearchResult result) {
+        return result.getModifiedName().getLast();
+    }
+}
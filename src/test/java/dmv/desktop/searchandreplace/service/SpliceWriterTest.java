@@ -0,0 +1,129 @@
+package dmv.desktop.searchandreplace.service;
+
+import static java.nio.charset.StandardCharsets.*;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.nio.file.attribute.PosixFileAttributes;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.nio.file.attribute.UserDefinedFileAttributeView;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import dmv.desktop.searchandreplace.model.ReplaceMarker;
+
+
+public class SpliceWriterTest {
+    
+    private static final String TEXT = "héllo 𝄞 wörld\nhéllo again";
+    
+    private Path folder;
+    private Path file;
+    private List<ReplaceMarker> markers;
+    
+    @Before
+    public void setUp() throws IOException {
+        folder = Files.createTempDirectory("splice");
+        file = Files.write(folder.resolve("file.txt"), TEXT.getBytes(UTF_8));
+        markers = Arrays.asList(new ReplaceMarker(0, 0, 5, false),
+                                new ReplaceMarker(0, 9, 5, true),
+                                new ReplaceMarker(1, 15, 5, false));
+    }
+    
+    @After
+    public void tearDown() throws IOException {
+        for (Path file : Files.newDirectoryStream(folder)) Files.delete(file);
+        Files.delete(folder);
+    }
+
+    @Test
+    public void write() throws IOException {
+        assertTrue(SpliceWriter.write(file, attributes(), TEXT, markers, 
+                                      marker -> "bye", UTF_8, null));
+        assertThat(new String(Files.readAllBytes(file), UTF_8), is("bye 𝄞 wörld\nbye again"));
+        /* temporary file is moved over the original one */
+        assertThat(Files.list(folder).count(), is(1L));
+    }
+
+    @Test
+    public void changedFile() throws IOException {
+        BasicFileAttributes attributes = attributes();
+        Files.setLastModifiedTime(file, FileTime.fromMillis(0));
+        assertFalse(SpliceWriter.write(file, attributes, TEXT, markers, 
+                                       marker -> "bye", UTF_8, null));
+        
+        /* content read in another charset has another length */
+        assertFalse(SpliceWriter.write(file, attributes(), TEXT, markers, 
+                                       marker -> "bye", ISO_8859_1, null));
+        assertThat(new String(Files.readAllBytes(file), UTF_8), is(TEXT));
+        assertThat(Files.list(folder).count(), is(1L));
+    }
+
+    @Test
+    public void permissions() throws IOException {
+        Files.setPosixFilePermissions(file, PosixFilePermissions.fromString("rw-rw-r--"));
+        SpliceWriter.write(file, attributes(), TEXT, markers, marker -> "bye", UTF_8, null);
+        assertThat(PosixFilePermissions.toString(Files.getPosixFilePermissions(file)), 
+                   is("rw-rw-r--"));
+    }
+
+    @Test
+    public void keptAttributes() throws IOException {
+        UserDefinedFileAttributeView view = 
+                Files.getFileAttributeView(file, UserDefinedFileAttributeView.class);
+        view.write("comment", UTF_8.encode("kept"));
+        PosixFileAttributes original = Files.readAttributes(file, PosixFileAttributes.class);
+        assertTrue(SpliceWriter.write(file, attributes(), TEXT, markers, 
+                                      marker -> "bye", UTF_8, null));
+        
+        view = Files.getFileAttributeView(file, UserDefinedFileAttributeView.class);
+        ByteBuffer value = ByteBuffer.allocate(view.size("comment"));
+        view.read("comment", value);
+        value.flip();
+        assertThat(UTF_8.decode(value).toString(), is("kept"));
+        PosixFileAttributes written = Files.readAttributes(file, PosixFileAttributes.class);
+        assertThat(written.owner(), is(original.owner()));
+        assertThat(written.group(), is(original.group()));
+    }
+
+    @Test
+    public void hardLinks() throws IOException {
+        Path link = Files.createLink(folder.resolve("link.txt"), file);
+        /* moved file would leave the other name with old content */
+        assertFalse(SpliceWriter.write(file, attributes(), TEXT, markers, 
+                                       marker -> "bye", UTF_8, null));
+        assertThat(new String(Files.readAllBytes(link), UTF_8), is(TEXT));
+        assertThat(Files.list(folder).count(), is(2L));
+    }
+
+    @Test
+    public void encodedLength() {
+        Random rand = new Random(1);
+        for (int t = 0; t < 1000; t++) {
+            StringBuilder text = new StringBuilder();
+            for (int i = rand.nextInt(20); i > 0; i--)
+                text.appendCodePoint(rand.nextBoolean() ? rand.nextInt(0x800) 
+                                                        : rand.nextInt(0x10FFFF - 0xE000) + 0xE000);
+            assertThat(SpliceWriter.encodedLength(text, 0, text.length(), UTF_8), 
+                       is((long) text.toString().getBytes(UTF_8).length));
+        }
+        assertThat(SpliceWriter.encodedLength("abcd", 1, 3, US_ASCII), is(2L));
+    }
+    
+    private BasicFileAttributes attributes() throws IOException {
+        return Files.readAttributes(file, BasicFileAttributes.class);
+    }
+}
@@ -0,0 +1,67 @@
+package dmv.desktop.searchandreplace.service;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.util.Arrays;
+import java.util.function.IntSupplier;
+
+import org.junit.Test;
+
+import dmv.desktop.searchandreplace.model.LiteralSearchPattern;
+import dmv.desktop.searchandreplace.model.SearchPattern.Finder;
+
+/*
+ * Time of checking content that doesn't contain 'what to find',
+ * it is excluded from the build, run it explicitly: 
+ * mvn test -Dtest=SwarMatcherBenchmark
+ */
+public class SwarMatcherBenchmark {
+
+    private static final int SIZE = 1 << 20;
+    private static final int RUNS = 200;
+    private static final String TO_FIND = "FindMe";
+
+    /* prevents dead code elimination */
+    private static long sink;
+
+    @Test
+    public void missingSequence() {
+        byte[] content = new byte[SIZE];
+        String line = "some text with Find and Me but without that word\n";
+        for (int i = 0; i < SIZE; i++) content[i] = (byte) line.charAt(i % line.length());
+        String text = new String(content, UTF_8);
+        byte[] sequence = TO_FIND.getBytes(UTF_8);
+        SwarMatcher matcher = new SwarMatcher(sequence);
+        Finder finder = new LiteralSearchPattern(TO_FIND).finder();
+
+        for (int warmUp = 0; warmUp < 3; warmUp++) {
+            report("scalar bytes", warmUp, () -> scalarIndexOf(content, sequence));
+            report("SWAR bytes", warmUp, () -> matcher.indexOf(content, 0, content.length));
+            report("decode and find", warmUp, 
+                   () -> finder.reset(new String(content, UTF_8)).find() ? 1 : -1);
+            report("find (decoded)", warmUp, () -> finder.reset(text).find() ? 1 : -1);
+        }
+    }
+
+    private static void report(String name, int warmUp, IntSupplier search) {
+        long[] times = new long[RUNS];
+        for (int run = 0; run < RUNS; run++) {
+            long start = System.nanoTime();
+            sink += search.getAsInt();
+            times[run] = System.nanoTime() - start;
+        }
+        Arrays.sort(times);
+        if (warmUp == 2)
+            System.out.printf("%-16s %8.1f us per MB (median)%n", name, times[RUNS / 2] / 1e3);
+    }
+
+    /* the way content is checked without SwarMatcher, a byte at a time */
+    private static int scalarIndexOf(byte[] data, byte[] sequence) {
+        for (int i = 0; i + sequence.length <= data.length; i++) {
+            int j = 0;
+            while (j < sequence.length && data[i + j] == sequence[j]) j++;
+            if (j == sequence.length) return i;
+        }
+        return -1;
+    }
+}
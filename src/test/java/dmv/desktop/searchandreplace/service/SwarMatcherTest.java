@@ -0,0 +1,102 @@
+package dmv.desktop.searchandreplace.service;
+
+import static java.nio.charset.StandardCharsets.*;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.nio.charset.Charset;
+import java.util.Random;
+
+import org.junit.Test;
+
+import dmv.desktop.searchandreplace.model.LiteralSearchPattern;
+import dmv.desktop.searchandreplace.model.RegexSearchPattern;
+import dmv.desktop.searchandreplace.model.WholeWordSearchPattern;
+import dmv.desktop.searchandreplace.model.WordBoundary;
+
+
+public class SwarMatcherTest {
+
+    @Test
+    public void randomData() {
+        Random rand = new Random(1);
+        for (int t = 0; t < 2000; t++) {
+            /* small alphabet gives many candidates and matches */
+            byte[] data = new byte[rand.nextInt(100)];
+            for (int i = 0; i < data.length; i++) data[i] = (byte) (rand.nextInt(3) - 1);
+            byte[] sequence = new byte[1 + rand.nextInt(4)];
+            for (int i = 0; i < sequence.length; i++) sequence[i] = (byte) (rand.nextInt(3) - 1);
+            int from = data.length == 0 ? 0 : rand.nextInt(data.length);
+            int to = from + rand.nextInt(data.length - from + 1);
+            assertThat(new SwarMatcher(sequence).indexOf(data, from, to), 
+                       is(scalarIndexOf(data, from, to, sequence)));
+        }
+    }
+
+    @Test
+    public void edges() {
+        byte[] data = "0123456789abcdefghij".getBytes(US_ASCII);
+        assertThat(matcher("0").indexOf(data, 0, data.length), is(0));
+        assertThat(matcher("j").indexOf(data, 0, data.length), is(19));
+        assertThat(matcher("7890").indexOf(data, 0, data.length), is(-1));
+        assertThat(matcher("89abcdefg").indexOf(data, 0, data.length), is(8));
+        assertThat(matcher("89abcdefg").indexOf(data, 0, 16), is(-1));
+        assertThat(matcher("89abcdefg").indexOf(data, 9, data.length), is(-1));
+        assertThat(matcher("0123456789abcdefghijk").indexOf(data, 0, data.length), is(-1));
+        /* high bytes are not borrowed from */
+        data = new byte[]{(byte) 0x80, (byte) 0xFF, 0, 1, (byte) 0xFF, 0, 1, 0, (byte) 0x81};
+        assertThat(new SwarMatcher(new byte[]{0, 1, 0}).indexOf(data, 0, data.length), is(5));
+        assertThat(new SwarMatcher(new byte[]{0, (byte) 0x81}).indexOf(data, 0, data.length), 
+                   is(7));
+    }
+
+    @Test
+    public void indexOfNonAscii() {
+        byte[] data = "0123456789abcdefghij".getBytes(US_ASCII);
+        assertThat(SwarMatcher.indexOfNonAscii(data, 0, data.length), is(-1));
+        data[3] = (byte) 0xC3;
+        data[17] = (byte) 0x80;
+        assertThat(SwarMatcher.indexOfNonAscii(data, 0, data.length), is(3));
+        assertThat(SwarMatcher.indexOfNonAscii(data, 4, data.length), is(17));
+        assertThat(SwarMatcher.indexOfNonAscii(data, 4, 17), is(-1));
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void emptySequence() {
+        new SwarMatcher(new byte[0]);
+    }
+
+    @Test
+    public void forPattern() {
+        LiteralSearchPattern literal = new LiteralSearchPattern("né", false);
+        assertThat(SwarMatcher.forPattern(literal, UTF_8).getSequence(), 
+                   is("né".getBytes(UTF_8)));
+        assertThat(SwarMatcher.forPattern(literal, ISO_8859_1), is(notNullValue()));
+        assertThat(SwarMatcher.forPattern(new WholeWordSearchPattern(literal, WordBoundary.WORD), 
+                                          UTF_8), is(notNullValue()));
+        /* decoded content must be searched */
+        assertThat(SwarMatcher.forPattern(literal, US_ASCII), is(nullValue()));
+        assertThat(SwarMatcher.forPattern(literal, UTF_16), is(nullValue()));
+        assertThat(SwarMatcher.forPattern(literal, Charset.forName("windows-1251")), 
+                   is(nullValue()));
+        assertThat(SwarMatcher.forPattern(new LiteralSearchPattern("né", true), UTF_8), 
+                   is(nullValue()));
+        assertThat(SwarMatcher.forPattern(new RegexSearchPattern("né"), UTF_8), 
+                   is(nullValue()));
+    }
+
+    private static SwarMatcher matcher(String sequence) {
+        return new SwarMatcher(sequence.getBytes(US_ASCII));
+    }
+
+    private static int scalarIndexOf(byte[] data, int from, int to, byte[] sequence) {
+        for (int i = from; i + sequence.length <= to; i++) {
+            int j = 0;
+            while (j < sequence.length && data[i + j] == sequence[j]) j++;
+            if (j == sequence.length) return i;
+        }
+        return -1;
+    }
+}